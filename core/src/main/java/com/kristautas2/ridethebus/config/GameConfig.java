@@ -1,11 +1,6 @@
 package com.kristautas2.ridethebus.config;
 
 import com.badlogic.gdx.Gdx;
-import com.kristautas2.ridethebus.core.logic.GameManager;
-
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
 
 public class GameConfig {
     // Reference dimensions for scaling
@@ -89,14 +84,13 @@ public class GameConfig {
         return 70f * getScaleY() - 20;
     }
 
-    public static final Map<GameManager.GameState, Integer> PAYOUT_MULTIPLIERS;
+    // House rules dealt by the game, payouts included; other variants live next to it in gameData/variants
+    public static final String RULE_VARIANT_FILE = "gameData/variants/classic.properties";
 
-    static {
-        Map<GameManager.GameState, Integer> tempMap = new HashMap<GameManager.GameState, Integer>();
-        tempMap.put(GameManager.GameState.GUESS_COLOR, 2);
-        tempMap.put(GameManager.GameState.GUESS_HIGHER_LOWER, 4);
-        tempMap.put(GameManager.GameState.GUESS_INSIDE_OUTSIDE, 8);
-        tempMap.put(GameManager.GameState.GUESS_SUIT, 32);
-        PAYOUT_MULTIPLIERS = Collections.unmodifiableMap(tempMap);
-    }
+    // Round journal (see RoundJournal), relative to the working directory like balance.txt
+    public static final String JOURNAL_DIRECTORY = "assets/gameData/journal";
+    public static final long JOURNAL_SEGMENT_SIZE = 4L << 20;
+
+    // Per-round history columns (see HistoryStore)
+    public static final String HISTORY_DIRECTORY = "assets/gameData/history";
 }
@@ -1,13 +1,20 @@
 package com.kristautas2.ridethebus.ui;
 
 import com.badlogic.gdx.Game;
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.scenes.scene2d.ui.List;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+import com.kristautas2.ridethebus.config.GameConfig;
+import com.kristautas2.ridethebus.core.logic.GameLoop;
 import com.kristautas2.ridethebus.core.logic.GameManager;
+import com.kristautas2.ridethebus.core.logic.RuleVariant;
 import com.kristautas2.ridethebus.core.model.Deck;
 import com.kristautas2.ridethebus.core.model.Player;
+import com.kristautas2.ridethebus.core.store.BalanceWriter;
+import com.kristautas2.ridethebus.core.store.HistoryStore;
+import com.kristautas2.ridethebus.core.store.RoundJournal;
 import com.kristautas2.ridethebus.ui.screen.GameScreen;
 import com.kristautas2.ridethebus.util.AssetHandler;
 
@@ -15,10 +22,16 @@ import java.io.BufferedReader;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Paths;
 
 public class RideTheBusGame extends Game {
     private SpriteBatch batch;
     private AssetHandler assetHandler;
+    private GameLoop gameLoop;
+    private BalanceWriter balanceWriter;
+    private RoundJournal journal;
+    private HistoryStore history;
     public BitmapFont font;
 
     @Override
@@ -28,10 +41,71 @@ public class RideTheBusGame extends Game {
         assetHandler = new AssetHandler();
         assetHandler.finishLoading();
         assetHandler.initializeSkin();
-        setScreen(new GameScreen(this, new GameManager(assetHandler)));
+        // Game logic runs on its own thread and the balance is written behind it on another;
+        // the screen only renders published snapshots
+        balanceWriter = new BalanceWriter(BalanceWriter.DEFAULT_FILE);
+        GameManager gameManager = new GameManager(loadRuleVariant());
+        journal = openJournal(gameManager.getVariant());
+        gameManager.setJournal(journal);
+        history = openHistory();
+        gameManager.setHistory(history);
+        gameLoop = new GameLoop(gameManager, game -> balanceWriter.save(game.getPlayer()));
+        gameLoop.start();
+        setScreen(new GameScreen(this, gameLoop));
+    }
+
+    // The variant file is the only source of the rules and payouts; without a readable one the game deals
+    // the built-in classic rules unchanged, so the journal's variant name still describes what was dealt
+    private RuleVariant loadRuleVariant() {
+        try (Reader reader = Gdx.files.internal(GameConfig.RULE_VARIANT_FILE).reader("UTF-8")) {
+            return RuleVariant.parse(reader);
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            return RuleVariant.CLASSIC;
+        }
+    }
+
+    // The audit trail of every round; the game plays on without one if it cannot be opened
+    private RoundJournal openJournal(RuleVariant variant) {
+        try {
+            return new RoundJournal(Paths.get(GameConfig.JOURNAL_DIRECTORY), variant.getName(), GameConfig.JOURNAL_SEGMENT_SIZE);
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    // Per-round history for analysis; optional like the journal
+    private HistoryStore openHistory() {
+        try {
+            return HistoryStore.open(Paths.get(GameConfig.HISTORY_DIRECTORY));
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            return null;
+        }
     }
 
     public void dispose() {
+        if (gameLoop != null) {
+            gameLoop.stop();
+        }
+        if (balanceWriter != null) {
+            balanceWriter.close(); // after the loop, so its last save is written
+        }
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        if (history != null) {
+            try {
+                history.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
         if (batch != null) {
             batch.dispose();
         }
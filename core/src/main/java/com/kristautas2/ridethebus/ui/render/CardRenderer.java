@@ -7,7 +7,7 @@ import com.kristautas2.ridethebus.core.model.Card;
 import com.kristautas2.ridethebus.util.AssetHandler;
 import com.badlogic.gdx.graphics.Texture;
 
-import java.util.ArrayList;
+import java.util.List;
 
 public class CardRenderer {
     private final AssetHandler assetHandler;
@@ -20,7 +20,7 @@ public class CardRenderer {
         }
     }
 
-    public void renderCards(Table table, ArrayList<Card> cards) {
+    public void renderCards(Table table, List<Card> cards) {
         if (table == null || cards == null) {
             System.out.println("Warning: Table or cards are null");
             return;
@@ -5,21 +5,35 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.ui.*;
 import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
+import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
+import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
 import com.badlogic.gdx.utils.Scaling;
 import com.kristautas2.ridethebus.config.GameConfig;
+import com.kristautas2.ridethebus.core.logic.GameLoop;
 import com.kristautas2.ridethebus.core.logic.GameManager;
-import com.kristautas2.ridethebus.core.model.Deck;
-import com.kristautas2.ridethebus.core.model.Player;
+import com.kristautas2.ridethebus.core.logic.GameSnapshot;
+import com.kristautas2.ridethebus.core.model.Card;
+import com.kristautas2.ridethebus.util.AssetHandler;
 
 public class UIRenderer {
     private final Skin skin;
-    private final GameManager gameManager;
-    private final Runnable updateUICallback;
+    private final GameLoop gameLoop; // buttons only submit commands; the screen re-renders when a new snapshot is published
+    private final AssetHandler assetHandler;
+    private GameSnapshot snapshot; // what is being rendered
 
-    public UIRenderer(Skin skin, GameManager gameManager, Runnable updateUICallback) {
+    public UIRenderer(Skin skin, GameLoop gameLoop, AssetHandler assetHandler) {
         this.skin = skin;
-        this.gameManager = gameManager;
-        this.updateUICallback = updateUICallback;
+        this.gameLoop = gameLoop;
+        this.assetHandler = assetHandler;
+        this.snapshot = gameLoop.latest();
+    }
+
+    private Drawable getCardTexture(Card card) {
+        return new TextureRegionDrawable(assetHandler.getCardTexture(card));
+    }
+
+    private Drawable getCardBackTexture() {
+        return new TextureRegionDrawable(assetHandler.getCardBack());
     }
 
     // NEW: Helper method to calculate card size based on window dimensions
@@ -30,8 +44,10 @@ public class UIRenderer {
         return new float[]{cardWidth, cardHeight}; // Return fixed width and height
     }
 
-    public void renderUI(Table table, GameManager.GameState state, GameManager.OpenCards openCards) {
-        gameManager.saveBalance();
+    public void renderUI(Table table, GameSnapshot snapshot) {
+        this.snapshot = snapshot;
+        GameManager.GameState state = snapshot.getState();
+        GameManager.OpenCards openCards = snapshot.getOpenCards();
 
         table.clearChildren();
         table.setPosition(0, 0);
@@ -50,9 +66,9 @@ public class UIRenderer {
 
 
         Table infoTable = new Table();
-        infoTable.add(createWinningsLabel(gameManager.getPlayer())).minWidth(200f).pad(GameConfig.TABLE_PADDING);
-        infoTable.add(createBetLabel(gameManager.getPlayer().getCurrentBet())).minWidth(120f).pad(GameConfig.TABLE_PADDING);
-        infoTable.add(createBalanceLabel(gameManager.getPlayer())).minWidth(200f).pad(GameConfig.TABLE_PADDING);
+        infoTable.add(createWinningsLabel(snapshot)).minWidth(200f).pad(GameConfig.TABLE_PADDING);
+        infoTable.add(createBetLabel(snapshot.getBet())).minWidth(120f).pad(GameConfig.TABLE_PADDING);
+        infoTable.add(createBalanceLabel(snapshot)).minWidth(200f).pad(GameConfig.TABLE_PADDING);
         infoTable.setPosition(GameConfig.getInfoPosX(), GameConfig.getInfoPosY());
         table.addActor(infoTable);
 
@@ -90,29 +106,34 @@ public class UIRenderer {
 
     public Label createStatusLabel(GameManager.GameState state) {
         switch (state) {
-            case START: return new Label("  Welcome to Ride the Bus! Press Start to begin.  " + gameManager.getPlayer().getHighScore(), skin);
+            case START: return new Label("  Welcome to Ride the Bus! Press Start to begin.  " + snapshot.getHighScore(), skin);
             case BETTING: return new Label("   Place your bet!   ", skin);
-            case GUESS_COLOR: return new Label("    Guess the card color: Red or Black?    " + gameManager.getPlayer().getHighScore(), skin);
-            case GUESS_HIGHER_LOWER: return new Label("Will the next card be Higher or Lower?" + gameManager.getPlayer().getHighScore(), skin);
-            case GUESS_INSIDE_OUTSIDE: return new Label("Will the next card be Inside or Outside the range?" + gameManager.getPlayer().getHighScore(), skin);
-            case GUESS_SUIT: return new Label("Guess the suit of the next card!" + gameManager.getPlayer().getHighScore(), skin);
-            case GAME_WON: return new Label("Congratulations!!! You just won $" + gameManager.getPlayer().getTotalWinnings(), skin);
-            case GAME_OVER: return new Label("Game Over! Play Again?" + gameManager.getPlayer().getHighScore(), skin);
-            case LOST: return new Label("You Lost Everything!" + gameManager.getPlayer().getHighScore(), skin);
-            default: return new Label("Unknown state" + gameManager.getPlayer().getHighScore(), skin);
+            case GUESS_COLOR: return new Label("    Guess the card color: Red or Black?    " + snapshot.getHighScore(), skin);
+            case GUESS_HIGHER_LOWER: return new Label("Will the next card be Higher or Lower?" + snapshot.getHighScore(), skin);
+            case GUESS_INSIDE_OUTSIDE: return new Label("Will the next card be Inside or Outside the range?" + snapshot.getHighScore(), skin);
+            case GUESS_SUIT: return new Label("Guess the suit of the next card!" + snapshot.getHighScore(), skin);
+            case GAME_WON: return new Label("Congratulations!!! You just won $" + snapshot.getWinnings(), skin);
+            case GAME_OVER: return new Label("Game Over! Play Again?" + snapshot.getHighScore(), skin);
+            case LOST: return new Label("You Lost Everything!" + snapshot.getHighScore(), skin);
+            default: return new Label("Unknown state" + snapshot.getHighScore(), skin);
         }
     }
 
-    public Label createWinningsLabel(Player player) {
-        return new Label("  Winnings: $" + player.getTotalWinnings() + "  ", skin);
+    // The last bet, but never more than the balance
+    private int getDefaultBet() {
+        return (int) Math.min(snapshot.getDefaultBet(), snapshot.getBalance());
+    }
+
+    public Label createWinningsLabel(GameSnapshot snapshot) {
+        return new Label("  Winnings: $" + snapshot.getWinnings() + "  ", skin);
     }
 
     private Actor createBetLabel(int currentBet) {
-        return new Label(" Bet: " + gameManager.getPlayer().getCurrentBet() + " ", skin);
+        return new Label(" Bet: " + currentBet + " ", skin);
     }
 
-    public Label createBalanceLabel(Player player) {
-        return new Label("  Balance: $" + player.getBalance() + "  ", skin);
+    public Label createBalanceLabel(GameSnapshot snapshot) {
+        return new Label("  Balance: $" + snapshot.getBalance() + "  ", skin);
     }
 
     private void addStartButton(Table table) {
@@ -124,8 +145,7 @@ public class UIRenderer {
         startButton.addListener(new ChangeListener() {
             @Override
             public void changed(ChangeEvent event, Actor actor) {
-                gameManager.startGame();
-                updateUICallback.run();
+                gameLoop.submit(GameManager::startGame);
             }
         });
         table.addActor(startButton);
@@ -140,7 +160,7 @@ public class UIRenderer {
         cardTable.setPosition(0, GameConfig.getCardPosY());
 
         for (int i = 0; i < 4; i++) {
-            Image cardImage = new Image(gameManager.getCardBackTexture());
+            Image cardImage = new Image(getCardBackTexture());
             cardImage.setScaling(Scaling.fit);
             cardImage.setSize(cardWidth, cardHeight);
             cardImage.setPosition(GameConfig.getCardPosX(i), 0);
@@ -157,7 +177,7 @@ public class UIRenderer {
         Table buttonTable = new Table();
         TextButton sub100 = new TextButton("-100", skin);
         TextButton sub10 = new TextButton("-10", skin);
-        final TextField betField = new TextField(String.valueOf(gameManager.getPlayer().defaultBet), skin);
+        final TextField betField = new TextField(String.valueOf(getDefaultBet()), skin);
         TextButton add10 = new TextButton("+10", skin);
         TextButton add100 = new TextButton("+100", skin);
         sub100.addListener(new ChangeListener() {
@@ -167,7 +187,7 @@ public class UIRenderer {
                     int currentBet = Integer.parseInt(betField.getText());
                     betField.setText(String.valueOf(Math.max(0, currentBet - 100)));
                 } catch (NumberFormatException e) {
-                    betField.setText(String.valueOf(gameManager.getPlayer().defaultBet));
+                    betField.setText(String.valueOf(getDefaultBet()));
                 }
             }
         });
@@ -178,19 +198,19 @@ public class UIRenderer {
                     int currentBet = Integer.parseInt(betField.getText());
                     betField.setText(String.valueOf(Math.max(0, currentBet - 10)));
                 } catch (NumberFormatException e) {
-                    betField.setText(String.valueOf(gameManager.getPlayer().defaultBet));
+                    betField.setText(String.valueOf(getDefaultBet()));
                 }
             }
         });
         add10.addListener(new ChangeListener() {
             @Override
             public void changed(ChangeEvent event, Actor actor) {
-                if(Integer.parseInt(betField.getText()) + 10 <= gameManager.getPlayer().getBalance()){
+                if(Integer.parseInt(betField.getText()) + 10 <= snapshot.getBalance()){
                     try {
                         int currentBet = Integer.parseInt(betField.getText());
                         betField.setText(String.valueOf(currentBet + 10));
                     } catch (NumberFormatException e) {
-                        betField.setText(String.valueOf(gameManager.getPlayer().defaultBet));
+                        betField.setText(String.valueOf(getDefaultBet()));
                     }
                 }
             }
@@ -198,16 +218,16 @@ public class UIRenderer {
         add100.addListener(new ChangeListener() {
             @Override
             public void changed(ChangeEvent event, Actor actor) {
-                if(Integer.parseInt(betField.getText()) + 100 <= gameManager.getPlayer().getBalance()){
+                if(Integer.parseInt(betField.getText()) + 100 <= snapshot.getBalance()){
                     try {
                         int currentBet = Integer.parseInt(betField.getText());
                         betField.setText(String.valueOf(currentBet + 100));
                     } catch (NumberFormatException e) {
-                        betField.setText(String.valueOf(gameManager.getPlayer().defaultBet));
+                        betField.setText(String.valueOf(getDefaultBet()));
                     }
                 }
                 else {
-                    betField.setText(Integer.toString((int) gameManager.getPlayer().getBalance()));
+                    betField.setText(Integer.toString((int) snapshot.getBalance()));
                 }
             }
         });
@@ -237,25 +257,8 @@ public class UIRenderer {
                 @Override
                 public void changed(ChangeEvent event, Actor actor) {
                     if(Integer.parseInt(betField.getText()) > 1){
-                        try {
-                            int bet = Integer.parseInt(betField.getText());
-                            gameManager.placeBet(bet);
-                            updateUICallback.run();
-                        } catch (IllegalArgumentException e) {
-                            Label statusLabel = createStatusLabel(gameManager.getCurrentState());
-                            statusLabel.setText(e.getMessage());
-                            statusLabel.setPosition(GameConfig.getStatusPosX(), GameConfig.getStatusPosY());
-                            table.clearChildren();
-                            table.addActor(statusLabel);
-                            table.addActor(betField);
-                            table.addActor(betButton);
-                            Table infoTable = new Table();
-                            infoTable.add(createWinningsLabel(gameManager.getPlayer())).minWidth(200f).pad(GameConfig.TABLE_PADDING);
-                            infoTable.add(createBetLabel(gameManager.getPlayer().getCurrentBet())).minWidth(20f).pad(GameConfig.TABLE_PADDING);
-                            infoTable.add(createBalanceLabel(gameManager.getPlayer())).minWidth(200f).pad(GameConfig.TABLE_PADDING);
-                            infoTable.setPosition(GameConfig.getInfoPosX(), GameConfig.getInfoPosY());
-                            table.addActor(infoTable);
-                        }
+                        int bet = Integer.parseInt(betField.getText());
+                        gameLoop.submit(game -> game.placeBet(bet));
                     }
                 }
             });
@@ -282,7 +285,7 @@ public class UIRenderer {
         cardTable.setPosition(0, GameConfig.getCardPosY());
 
         for (int i = 0; i < 4; i++) {
-            Image cardImage = new Image(gameManager.getCardBackTexture());
+            Image cardImage = new Image(getCardBackTexture());
             cardImage.setScaling(Scaling.fit);
             cardImage.setSize(cardWidth, cardHeight);
             cardImage.setPosition(GameConfig.getCardPosX(i), 0);
@@ -301,18 +304,16 @@ public class UIRenderer {
             @Override
             public void changed(ChangeEvent event, Actor actor) {
                 System.out.println("Red button clicked"); // Debug print
-                System.out.println("Current state: " + gameManager.getCurrentState()); // Deb// ug print
-                gameManager.guessColor("red");
-                updateUICallback.run();
+                System.out.println("Current state: " + snapshot.getState()); // Deb// ug print
+                gameLoop.submit(game -> game.guessColor(Card.Color.RED));
             }
         });
         blackButton.addListener(new ChangeListener() {
             @Override
             public void changed(ChangeEvent event, Actor actor) {
                 System.out.println("Black button clicked"); // Debug print
-                System.out.println("Current state: " + gameManager.getCurrentState()); // Debug print
-                gameManager.guessColor("black");
-                updateUICallback.run();
+                System.out.println("Current state: " + snapshot.getState()); // Debug print
+                gameLoop.submit(game -> game.guessColor(Card.Color.BLACK));
             }
         });
         buttonTable.add(redButton).minWidth(100f).pad(GameConfig.TABLE_PADDING);
@@ -336,14 +337,14 @@ public class UIRenderer {
         Table cardTable = new Table();
         cardTable.setPosition(0, GameConfig.getCardPosY());
 
-        Image cardImageUp = new Image(gameManager.getCardTexture(gameManager.getDealtCards().get(0)));
+        Image cardImageUp = new Image(getCardTexture(snapshot.getDealtCards().get(0)));
         cardImageUp.setScaling(Scaling.fit);
         cardImageUp.setSize(cardWidth, cardHeight);
         cardImageUp.setPosition(GameConfig.getCardPosX(0), 0);
         cardTable.addActor(cardImageUp);
 
         for (int i = 1; i < 4; i++) {
-            Image cardImage = new Image(gameManager.getCardBackTexture());
+            Image cardImage = new Image(getCardBackTexture());
             cardImage.setScaling(Scaling.fit);
             cardImage.setSize(cardWidth, cardHeight);
             cardImage.setPosition(GameConfig.getCardPosX(i), 0);
@@ -360,23 +361,20 @@ public class UIRenderer {
         higherButton.addListener(new ChangeListener() {
             @Override
             public void changed(ChangeEvent event, Actor actor) {
-                gameManager.guessHigherLower(true);
-                updateUICallback.run();
+                gameLoop.submit(game -> game.guessHigherLower(true));
             }
         });
         lowerButton.addListener(new ChangeListener() {
             @Override
             public void changed(ChangeEvent event, Actor actor) {
-                gameManager.guessHigherLower(false);
-                updateUICallback.run();
+                gameLoop.submit(game -> game.guessHigherLower(false));
             }
         });
         collectWinnings.addListener(new ChangeListener() {
             @Override
             public void changed(ChangeEvent event, Actor actor) {
                 System.out.println("Winnings collected");
-                gameManager.collectWinnings();
-                updateUICallback.run();
+                gameLoop.submit(GameManager::collectWinnings);
             }
         });
         buttonTable.add(lowerButton).minWidth(100f).pad(GameConfig.TABLE_PADDING);
@@ -404,7 +402,7 @@ public class UIRenderer {
         cardTable.setPosition(0, GameConfig.getCardPosY());
 
         for (int i = 0; i < 2; i++) {
-            Image cardImageUp = new Image(gameManager.getCardTexture(gameManager.getDealtCards().get(i)));
+            Image cardImageUp = new Image(getCardTexture(snapshot.getDealtCards().get(i)));
             cardImageUp.setScaling(Scaling.fit);
             cardImageUp.setSize(cardWidth, cardHeight);
             cardImageUp.setPosition(GameConfig.getCardPosX(i), 0);
@@ -412,7 +410,7 @@ public class UIRenderer {
         }
         // EDIT: Use absolute positioning for card backs
         for (int i = 2; i < 4; i++) {
-            Image cardImage = new Image(gameManager.getCardBackTexture());
+            Image cardImage = new Image(getCardBackTexture());
             cardImage.setScaling(Scaling.fit);
             cardImage.setSize(cardWidth, cardHeight);
             cardImage.setPosition(GameConfig.getCardPosX(i), 0);
@@ -429,23 +427,20 @@ public class UIRenderer {
         insideButton.addListener(new ChangeListener() {
             @Override
             public void changed(ChangeEvent event, Actor actor) {
-                gameManager.guessInsideOutside(true);
-                updateUICallback.run();
+                gameLoop.submit(game -> game.guessInsideOutside(true));
             }
         });
         outsideButton.addListener(new ChangeListener() {
             @Override
             public void changed(ChangeEvent event, Actor actor) {
-                gameManager.guessInsideOutside(false);
-                updateUICallback.run();
+                gameLoop.submit(game -> game.guessInsideOutside(false));
             }
         });
         collectWinnings.addListener(new ChangeListener() {
             @Override
             public void changed(ChangeEvent event, Actor actor) {
                 System.out.println("Winnings collected");
-                gameManager.collectWinnings();
-                updateUICallback.run();
+                gameLoop.submit(GameManager::collectWinnings);
             }
         });
         buttonTable.add(insideButton).minWidth(100f).pad(GameConfig.TABLE_PADDING);
@@ -473,14 +468,14 @@ public class UIRenderer {
         cardTable.setPosition(0, GameConfig.getCardPosY());
 
         for (int i = 0; i < 3; i++) {
-            Image cardImageUp = new Image(gameManager.getCardTexture(gameManager.getDealtCards().get(i)));
+            Image cardImageUp = new Image(getCardTexture(snapshot.getDealtCards().get(i)));
             cardImageUp.setScaling(Scaling.fit);
             cardImageUp.setSize(cardWidth, cardHeight);
             cardImageUp.setPosition(GameConfig.getCardPosX(i), 0);
             cardTable.addActor(cardImageUp);
         }
         // EDIT: Use absolute positioning for card back
-        Image cardImage = new Image(gameManager.getCardBackTexture());
+        Image cardImage = new Image(getCardBackTexture());
         cardImage.setScaling(Scaling.fit);
         cardImage.setSize(cardWidth, cardHeight);
         cardImage.setPosition(GameConfig.getCardPosX(3), 0);
@@ -492,13 +487,12 @@ public class UIRenderer {
         Table buttonTable = new Table();
         buttonTable.setPosition(GameConfig.getButtonPosX(), GameConfig.getButtonPosY());
 
-        for (String suit : Deck.SUITS) {
-            TextButton suitButton = new TextButton(suit, skin);
+        for (Card.Suit suit : Card.Suit.values()) {
+            TextButton suitButton = new TextButton(suit.getName(), skin);
             suitButton.addListener(new ChangeListener() {
                 @Override
                 public void changed(ChangeEvent event, Actor actor) {
-                    gameManager.guessSuit(suit);
-                    updateUICallback.run();
+                    gameLoop.submit(game -> game.guessSuit(suit));
                 }
             });
             buttonTable.add(suitButton).minWidth(100f).pad(GameConfig.TABLE_PADDING);
@@ -508,8 +502,7 @@ public class UIRenderer {
         collectWinnings.addListener(new ChangeListener() {
             @Override
             public void changed(ChangeEvent event, Actor actor) {
-                gameManager.collectWinnings();
-                updateUICallback.run();
+                gameLoop.submit(GameManager::collectWinnings);
             }
         });
         buttonTable.add(collectWinnings).colspan(4).pad(GameConfig.TABLE_PADDING);
@@ -520,7 +513,6 @@ public class UIRenderer {
     //═★═★═★═★═★═★═★═★═★═★═★═★═★═★═★═★═★═★═★═★═★═★═★═★═★═★═★═★═★═★═★═★═★═
 
     private void addGameWonControls(Table table){
-        gameManager.saveBalance();
 
         float[] cardSize = getCardSize();
         float cardWidth = cardSize[0];
@@ -530,7 +522,7 @@ public class UIRenderer {
         cardTable.setPosition(0, GameConfig.getCardPosY());
 
         for (int i = 0; i < 4; i++) {
-            Image cardImageUp = new Image(gameManager.getCardTexture(gameManager.getDealtCards().get(i)));
+            Image cardImageUp = new Image(getCardTexture(snapshot.getDealtCards().get(i)));
             cardImageUp.setScaling(Scaling.fit);
             cardImageUp.setSize(cardWidth, cardHeight);
             cardImageUp.setPosition(GameConfig.getCardPosX(i), 0);
@@ -559,11 +551,6 @@ public class UIRenderer {
             break;
         }
 
-        if(gameManager.getPlayer().defaultBet > gameManager.getPlayer().getBalance()){
-            gameManager.getPlayer().defaultBet = Math.toIntExact(gameManager.getPlayer().getBalance());
-        }
-
-        gameManager.saveBalance();
         TextButton startButton = new TextButton("Play Again", skin);
         startButton.setSize(GameConfig.getButtonWidth() + 80, GameConfig.getButtonHeight());
         startButton.setPosition(
@@ -572,8 +559,7 @@ public class UIRenderer {
         startButton.addListener(new ChangeListener() {
             @Override
             public void changed(ChangeEvent event, Actor actor) {
-                gameManager.startGame();
-                updateUICallback.run();
+                gameLoop.submit(GameManager::startGame);
             }
         });
         table.addActor(startButton);
@@ -590,14 +576,14 @@ public class UIRenderer {
         Table cardTable = new Table();
         cardTable.setPosition(0, GameConfig.getCardPosY());
 
-        Image cardImageUp = new Image(gameManager.getCardTexture(gameManager.getDealtCards().get(0)));
+        Image cardImageUp = new Image(getCardTexture(snapshot.getDealtCards().get(0)));
         cardImageUp.setScaling(Scaling.fit);
         cardImageUp.setSize(cardWidth, cardHeight);
         cardImageUp.setPosition(GameConfig.getCardPosX(0), 0);
         cardTable.addActor(cardImageUp);
 
         for (int i = 1; i < 4; i++) {
-            Image cardImage = new Image(gameManager.getCardBackTexture());
+            Image cardImage = new Image(getCardBackTexture());
             cardImage.setScaling(Scaling.fit);
             cardImage.setSize(cardWidth, cardHeight);
             cardImage.setPosition(GameConfig.getCardPosX(i), 0);
@@ -618,7 +604,7 @@ public class UIRenderer {
         cardTable.setPosition(0, GameConfig.getCardPosY());
 
         for (int i = 0; i < 2; i++) {
-            Image cardImageUp = new Image(gameManager.getCardTexture(gameManager.getDealtCards().get(i)));
+            Image cardImageUp = new Image(getCardTexture(snapshot.getDealtCards().get(i)));
             cardImageUp.setScaling(Scaling.fit);
             cardImageUp.setSize(cardWidth, cardHeight);
             cardImageUp.setPosition(GameConfig.getCardPosX(i), 0);
@@ -626,7 +612,7 @@ public class UIRenderer {
         }
         // EDIT: Use absolute positioning for card backs
         for (int i = 2; i < 4; i++) {
-            Image cardImage = new Image(gameManager.getCardBackTexture());
+            Image cardImage = new Image(getCardBackTexture());
             cardImage.setScaling(Scaling.fit);
             cardImage.setSize(cardWidth, cardHeight);
             cardImage.setPosition(GameConfig.getCardPosX(i), 0);
@@ -647,14 +633,14 @@ public class UIRenderer {
         cardTable.setPosition(0, GameConfig.getCardPosY());
 
         for (int i = 0; i < 3; i++) {
-            Image cardImageUp = new Image(gameManager.getCardTexture(gameManager.getDealtCards().get(i)));
+            Image cardImageUp = new Image(getCardTexture(snapshot.getDealtCards().get(i)));
             cardImageUp.setScaling(Scaling.fit);
             cardImageUp.setSize(cardWidth, cardHeight);
             cardImageUp.setPosition(GameConfig.getCardPosX(i), 0);
             cardTable.addActor(cardImageUp);
         }
         // EDIT: Use absolute positioning for card back
-        Image cardImage = new Image(gameManager.getCardBackTexture());
+        Image cardImage = new Image(getCardBackTexture());
         cardImage.setScaling(Scaling.fit);
         cardImage.setSize(cardWidth, cardHeight);
         cardImage.setPosition(GameConfig.getCardPosX(3), 0);
@@ -673,7 +659,7 @@ public class UIRenderer {
         cardTable.setPosition(0, GameConfig.getCardPosY());
 
         for (int i = 0; i < 4; i++) {
-            Image cardImageUp = new Image(gameManager.getCardTexture(gameManager.getDealtCards().get(i)));
+            Image cardImageUp = new Image(getCardTexture(snapshot.getDealtCards().get(i)));
             cardImageUp.setScaling(Scaling.fit);
             cardImageUp.setSize(cardWidth, cardHeight);
             cardImageUp.setPosition(GameConfig.getCardPosX(i), 0);
@@ -691,9 +677,7 @@ public class UIRenderer {
         tryAgain.addListener(new ChangeListener() {
             @Override
             public void changed(ChangeEvent event, Actor actor) {
-                gameManager.getPlayer().newPlayer();
-                gameManager.startGame();
-                updateUICallback.run();
+                gameLoop.submit(GameManager::startGame); // the manager restarted the player when it went broke
             }
         });
         table.addActor(tryAgain);
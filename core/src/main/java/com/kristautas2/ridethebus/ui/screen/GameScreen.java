@@ -12,7 +12,8 @@ import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
 import com.badlogic.gdx.utils.viewport.FitViewport;
 import com.badlogic.gdx.utils.viewport.StretchViewport;
 import com.kristautas2.ridethebus.config.GameConfig;
-import com.kristautas2.ridethebus.core.logic.GameManager;
+import com.kristautas2.ridethebus.core.logic.GameLoop;
+import com.kristautas2.ridethebus.core.logic.GameSnapshot;
 import com.kristautas2.ridethebus.ui.RideTheBusGame;
 import com.kristautas2.ridethebus.ui.render.CardRenderer;
 import com.kristautas2.ridethebus.ui.render.UIRenderer;
@@ -20,7 +21,8 @@ import com.kristautas2.ridethebus.util.AssetHandler;
 
 public class GameScreen implements Screen {
     private final RideTheBusGame game;
-    private final GameManager gameManager;
+    private final GameLoop gameLoop;
+    private GameSnapshot shown; // the snapshot the UI was last built from
     private final CardRenderer cardRenderer;
     private final UIRenderer uiRenderer;
     private final Stage stage;
@@ -28,16 +30,16 @@ public class GameScreen implements Screen {
     private final Image background;
     private final StretchViewport viewport;
 
-    public GameScreen(RideTheBusGame game, GameManager gameManager) {
+    public GameScreen(RideTheBusGame game, GameLoop gameLoop) {
         System.out.println("Creating GameScreen");
         this.game = game;
-        this.gameManager = gameManager;
+        this.gameLoop = gameLoop;
 
         AssetHandler assetHandler = game.getAssetHandler();
         assetHandler.finishLoading();
         assetHandler.initializeSkin();
         this.cardRenderer = new CardRenderer(assetHandler);
-        this.uiRenderer = new UIRenderer(assetHandler.getUISkin(), gameManager, this::updateUI);
+        this.uiRenderer = new UIRenderer(assetHandler.getUISkin(), gameLoop, assetHandler);
 
         // Set up stage
         OrthographicCamera camera = new OrthographicCamera();
@@ -73,6 +75,11 @@ public class GameScreen implements Screen {
         Gdx.gl.glClearColor(0f, 0f, 0f, 0f); // Transparent clear
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
 
+        // Pick up whatever the logic thread published since the last frame
+        if (gameLoop.latest() != shown) {
+            updateUI();
+        }
+
         stage.act(delta);
         stage.draw();
     }
@@ -135,18 +142,19 @@ public class GameScreen implements Screen {
 
 
     private void updateUI() {
+        shown = gameLoop.latest();
         mainTable.clear();
         //System.out.println("Main table size: " + mainTable.getWidth() + "x" + mainTable.getHeight());
 
         // Add card display
         Table cardTable = new Table();
-        cardRenderer.renderCards(cardTable, gameManager.getDealtCards());
+        cardRenderer.renderCards(cardTable, shown.getDealtCards());
         //System.out.println("Card table children count: " + cardTable.getChildren().size);
 
         mainTable.add(cardTable).pad(10).row();
 
         // Add UI controls
-        uiRenderer.renderUI(mainTable, gameManager.getCurrentState(), gameManager.getCurrentOpenCards());
+        uiRenderer.renderUI(mainTable, shown);
     }
 
 
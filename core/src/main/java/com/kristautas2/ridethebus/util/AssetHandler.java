@@ -21,7 +21,6 @@ import com.badlogic.gdx.scenes.scene2d.utils.NinePatchDrawable;
 import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
 import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.kristautas2.ridethebus.core.model.Card;
-import com.kristautas2.ridethebus.core.model.Deck;
 
 public class AssetHandler {
     private final AssetManager assetManager;
@@ -259,15 +258,12 @@ public class AssetHandler {
         //===============
 
 
-        for (String suit : Deck.SUITS) {
-            for (int value = Deck.MIN_VALUE; value <= Deck.MAX_VALUE; value++) {
-                Card card = new Card(value, suit);
-                String assetPath = card.getImagePath();
-                if (Gdx.files.internal(assetPath).exists()) {
-                    assetManager.load(assetPath, Texture.class);
-                } else {
-                    System.out.println("WARNING: Card texture not found at: " + assetPath);
-                }
+        for (Card card : Card.allCards()) {
+            String assetPath = card.getImagePath();
+            if (Gdx.files.internal(assetPath).exists()) {
+                assetManager.load(assetPath, Texture.class);
+            } else {
+                System.out.println("WARNING: Card texture not found at: " + assetPath);
             }
         }
         if (Gdx.files.internal("cards/cardBack.png").exists()) {
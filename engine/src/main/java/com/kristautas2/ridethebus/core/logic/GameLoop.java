@@ -0,0 +1,87 @@
+package com.kristautas2.ridethebus.core.logic;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+// Runs a GameManager on its own thread. Any thread submits commands to a lock-free queue; the logic
+// thread applies them in order and then publishes an immutable GameSnapshot, which readers (the
+// render thread, once per frame) pick up without ever touching the GameManager or taking a lock.
+// The GameManager must not be used from any other thread once the loop is started.
+public final class GameLoop {
+    public interface Command {
+        void apply(GameManager game);
+    }
+
+    private final GameManager game;
+    private final Command afterBatch; // e.g. persistence, run on the logic thread before each publish
+    private final ConcurrentLinkedQueue<Command> commands = new ConcurrentLinkedQueue<>();
+    private final Thread thread;
+    private volatile GameSnapshot published;
+    private volatile boolean running;
+
+    public GameLoop(GameManager game) {
+        this(game, null);
+    }
+
+    public GameLoop(GameManager game, Command afterBatch) {
+        this.game = game;
+        this.afterBatch = afterBatch;
+        this.published = game.snapshot();
+        this.thread = new Thread(this::run, "game-logic");
+        thread.setDaemon(true);
+    }
+
+    public void start() {
+        running = true;
+        thread.start();
+    }
+
+    // Queues a command for the logic thread; never blocks
+    public void submit(Command command) {
+        commands.offer(command);
+        LockSupport.unpark(thread);
+    }
+
+    // The state after the last applied batch of commands; a new instance whenever anything ran
+    public GameSnapshot latest() {
+        return published;
+    }
+
+    // Runs every command already submitted, then stops the logic thread
+    public void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (running || !commands.isEmpty()) {
+            Command command = commands.poll();
+            if (command == null) {
+                LockSupport.park(this);
+                continue;
+            }
+            do {
+                apply(command);
+                command = commands.poll();
+            } while (command != null);
+            if (afterBatch != null) {
+                apply(afterBatch);
+            }
+            published = game.snapshot();
+        }
+    }
+
+    // A failing command is reported and skipped; it must not take the logic thread down
+    private void apply(Command command) {
+        try {
+            command.apply(game);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package com.kristautas2.ridethebus.core.logic;
+
+import com.kristautas2.ridethebus.core.model.Card;
+import com.kristautas2.ridethebus.core.model.CardMask;
+import com.kristautas2.ridethebus.core.model.Shoe;
+import com.kristautas2.ridethebus.core.model.Player;
+import com.kristautas2.ridethebus.core.odds.OddsCalculator;
+import com.kristautas2.ridethebus.core.store.BalanceWriter;
+import com.kristautas2.ridethebus.core.store.HistoryStore;
+import com.kristautas2.ridethebus.core.store.RoundJournal;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+
+public class GameManager {
+    public enum GameState {START, BETTING, GUESS_COLOR, GUESS_HIGHER_LOWER, GUESS_INSIDE_OUTSIDE, GUESS_SUIT, GAME_OVER, LOST, GAME_WON}
+    public enum OpenCards {ONE, TWO, THREE, FOUR}
+    private static final OpenCards[] OPEN_CARDS = OpenCards.values();
+    private final Player player;
+    private final Shoe shoe; // carries its remaining cards from round to round
+    private GameState currentState;
+    private OpenCards currentCards;
+    private final ArrayList<Card> dealtCards;
+    private long dealtMask; // same cards as dealtCards, as a CardMask (distinct cards only with several decks)
+    private Card previousStageCard; // cards that won the last two stages of this round: the context of the
+    private Card lastStageCard;     // next guess (see RuleVariant.outcome); pushed cards never are
+    private final RuleVariant variant;
+    private final PayoutTable payouts;
+    private int stage; // index into the variant's stages
+    private final OddsCalculator odds;
+    private final SplittableRandom random;
+    private long roundSeed; // seed of the shoe's last shuffle
+    private int roundStart; // cards dealt from the shoe since that shuffle when the round started
+    private RoundJournal journal; // audit trail of every round, if set
+    private HistoryStore history; // per-round stats for analysis, if set
+
+    public GameManager() {
+        this(PayoutTable.DEFAULT);
+    }
+
+    public GameManager(PayoutTable payouts) {
+        this(payouts, new SplittableRandom());
+    }
+
+    public GameManager(PayoutTable payouts, SplittableRandom random) {
+        this(RuleVariant.CLASSIC.withPayouts(payouts), random);
+    }
+
+    public GameManager(RuleVariant variant) {
+        this(variant, new SplittableRandom());
+    }
+
+    // random is owned by this manager; give each session its own stream (see RandomStreams)
+    public GameManager(RuleVariant variant, SplittableRandom random) {
+        this(variant, random, null);
+    }
+
+    // player is a stored profile (see PlayerStore.load); null loads the single player of balance.txt
+    public GameManager(RuleVariant variant, SplittableRandom random, Player player) {
+        if (player == null) {
+            this.player = new Player();
+            loadBalance(this.player);
+        } else {
+            this.player = player;
+        }
+        this.random = random;
+        this.variant = variant;
+        this.shoe = new Shoe(variant.getCards(), variant.getPenetration(), random::nextInt);
+        this.roundSeed = random.nextLong();
+        shoe.shuffle(roundSeed);
+        this.odds = new OddsCalculator(variant.getCards());
+        this.dealtCards = new ArrayList<>();
+        this.currentState = GameState.START;
+        this.currentCards = OpenCards.ONE;
+        this.payouts = variant.getPayouts();
+    }
+
+    void loadBalance(Player player){
+        try {
+            BufferedReader reader = new BufferedReader(new FileReader(BalanceWriter.DEFAULT_FILE.toFile()));
+            String line = reader.readLine();
+            player.setBalance(Integer.parseInt(String.valueOf(line)));
+            int i = Integer.parseInt(reader.readLine());
+            System.out.println("NUMBER GOT: " + i);
+            if(i > 0 && i > player.getBalance()){
+                player.setHighScore(i);
+                System.out.println("HIGHSCORE: " + i);
+            }
+            else{
+                player.setHighScore((int) player.getBalance());
+                System.out.println("HIGHSCORE SET FROM BALANCE: " + i);
+            }
+
+
+            reader.close();
+            if(line.equals("0")){
+                gameLost(0);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public GameState getCurrentState() {
+        return currentState;
+    }
+
+    public OpenCards getCurrentOpenCards() {
+        return currentCards;
+    }
+
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    // Ignored outside BETTING, e.g. a second click on Bet queued before the first one was played
+    public void placeBet(int bet) {
+        if (currentState != GameState.BETTING) {
+            return;
+        }
+        if (bet > player.getBalance()) {
+            player.reset();
+            currentState = GameState.GAME_OVER;
+        } else {
+            player.placeBet(bet);
+            if (journal != null) {
+                journal.beginRound(roundSeed, roundStart, bet);
+            }
+            stage = 0;
+            currentState = variant.getStage(0).getState();
+        }
+    }
+
+    public void guessColor(Card.Color color) {
+        if (stageIs(RuleVariant.Stage.COLOR)) {
+            guess(color.ordinal());
+        }
+    }
+
+    private boolean gameLost(int balance) {
+        if(balance == 0){
+            currentState = GameState.LOST;
+            player.newPlayer();
+            return true;
+        }
+        return false;
+    }
+
+    public boolean guessHigherLower(boolean higher) {
+        return stageIs(RuleVariant.Stage.HIGHER_LOWER) && guess(higher ? 0 : 1) == RuleVariant.WIN;
+    }
+
+    public boolean guessInsideOutside(boolean inside) {
+        return stageIs(RuleVariant.Stage.INSIDE_OUTSIDE) && guess(inside ? 0 : 1) == RuleVariant.WIN;
+    }
+
+    public void guessSuit(Card.Suit suit) {
+        if (stageIs(RuleVariant.Stage.SUIT)) {
+            guess(suit.ordinal());
+        }
+    }
+
+    private boolean stageIs(RuleVariant.Stage kind) {
+        return stage < variant.stages() && currentState == kind.getState() && variant.getStage(stage) == kind;
+    }
+
+    // Deals the next card and resolves the current stage from the variant's outcome table
+    private byte guess(int choice) {
+        Card newCard = dealNextCard();
+        byte outcome = variant.outcome(stage, choice, previousStageCard, lastStageCard, newCard);
+        currentCards = OPEN_CARDS[Math.min(stage, OPEN_CARDS.length - 1)];
+        if (journal != null) {
+            journal.guess(choice, newCard);
+        }
+        if (outcome == RuleVariant.WIN) {
+            player.addWinnings(payouts.payout(player.getCurrentBet(), stage));
+            previousStageCard = lastStageCard;
+            lastStageCard = newCard;
+            stage++;
+            if (stage == variant.stages()) {
+                roundEnded(RoundJournal.WON, player.getTotalWinnings());
+                player.addWinningsToBalance();
+                currentState = GameState.GAME_OVER; // Player has won the game!
+            } else {
+                currentState = variant.getStage(stage).getState();
+            }
+        } else if (outcome == RuleVariant.LOSE) {
+            roundEnded(RoundJournal.LOST, 0);
+            player.reset();
+            if(!gameLost((int) player.getBalance())){currentState = GameState.GAME_OVER;}
+        }
+        return outcome;
+    }
+
+    public void collectWinnings() {
+        if (player.getCurrentBet() > 0 && stage < variant.stages() && currentState == variant.getStage(stage).getState()) {
+            roundEnded(RoundJournal.COLLECTED, player.getTotalWinnings());
+        }
+        player.addWinningsToBalance();
+        startGame();
+    }
+
+    // Deals on from the shoe, reshuffling with a fresh seed once the cut card is out
+    public void startGame() {
+        if (shoe.needsShuffle()) {
+            startGame(random.nextLong());
+        } else {
+            startRound();
+        }
+    }
+
+    // Reshuffles the shoe into the order fully determined by shuffleSeed and starts a round
+    public void startGame(long shuffleSeed) {
+        startGame(shuffleSeed, 0);
+    }
+
+    // Replays a round: the shoe shuffled with shuffleSeed, roundStart cards in (see getRoundSeed, getRoundStart)
+    public void startGame(long shuffleSeed, int roundStart) {
+        this.roundSeed = shuffleSeed;
+        shoe.shuffle(shuffleSeed);
+        odds.reset();
+        for (int i = 0; i < roundStart; i++) {
+            odds.remove(shoe.drawCard());
+        }
+        startRound();
+    }
+
+    private void startRound() {
+        roundStart = shoe.dealt();
+        dealtCards.clear();
+        dealtMask = CardMask.EMPTY;
+        previousStageCard = null;
+        lastStageCard = null;
+        player.reset();
+        stage = 0;
+        currentState = GameState.BETTING;
+    }
+
+    // The variant keeps a whole round behind the cut card, so the shoe only runs out (IllegalStateException)
+    // on a replay started past it
+    private Card dealNextCard() {
+        Card card = shoe.drawCard();
+        dealtCards.add(card);
+        dealtMask = CardMask.with(dealtMask, card);
+        odds.remove(card);
+        return card;
+    }
+
+    // The whole game state as an immutable value, O(1): it shares the shoe's current order
+    public GameSnapshot snapshot() {
+        return new GameSnapshot(variant, shoe.shareOrder(), roundSeed, shoe.getCutCard(), shoe.dealt(), roundStart,
+            dealtMask, previousStageCard, lastStageCard, stage, currentState, currentCards, player.getBalance(),
+            player.getCurrentBet(), player.getTotalWinnings(), player.getHighScore(), player.defaultBet);
+    }
+
+    // Undo/replay: puts this manager back into a snapshot taken from it (or branched from one).
+    // Recounts the cards dealt from the shoe, so O(shoe size).
+    public void restore(GameSnapshot snapshot) {
+        if (snapshot.getVariant() != variant) {
+            throw new IllegalArgumentException("Snapshot of a different rule variant");
+        }
+        shoe.restore(snapshot.getDealOrder(), snapshot.getPosition());
+        odds.reset();
+        for (int i = 0; i < snapshot.getPosition(); i++) {
+            odds.remove(snapshot.getDealOrder().card(i));
+        }
+        roundSeed = snapshot.getShuffleSeed();
+        roundStart = snapshot.getRoundStart();
+        dealtCards.clear();
+        dealtCards.addAll(snapshot.getDealtCards());
+        dealtMask = snapshot.getDealtMask();
+        previousStageCard = snapshot.getPreviousStageCard();
+        lastStageCard = snapshot.getLastStageCard();
+        stage = snapshot.getStage();
+        currentState = snapshot.getState();
+        currentCards = snapshot.getOpenCards();
+        player.restore(snapshot.getBalance(), snapshot.getBet(), snapshot.getWinnings(), snapshot.getHighScore(),
+            snapshot.getDefaultBet());
+    }
+
+    // Records the round that just ended (RoundJournal.LOST, COLLECTED or WON), before the player is paid
+    private void roundEnded(int end, int paid) {
+        if (journal != null) {
+            journal.endRound(end, paid);
+        }
+        if (history != null) {
+            try {
+                history.append(player.getCurrentBet(), stage, end == RoundJournal.LOST ? 0 : stage, paid,
+                    System.currentTimeMillis());
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // Records every round played from now on; the journal is only used from the thread running this manager
+    public void setJournal(RoundJournal journal) {
+        this.journal = journal;
+    }
+
+    // Adds a row per round played from now on, like setJournal
+    public void setHistory(HistoryStore history) {
+        this.history = history;
+    }
+
+    public HistoryStore getHistory() {
+        return history;
+    }
+
+    public RoundJournal getJournal() {
+        return journal;
+    }
+
+    // Odds of the next card given every card dealt from the shoe since it was shuffled
+    public OddsCalculator getOdds() {
+        return odds;
+    }
+
+    // Chance that the next card wins choice at the current stage, under the variant's tie rule for it
+    public double getWinChance(int choice) {
+        if (stage >= variant.stages() || currentState != variant.getStage(stage).getState()) {
+            return 0;
+        }
+        return odds.win(variant, stage, choice, previousStageCard, lastStageCard);
+    }
+
+    public Shoe getShoe() {
+        return shoe;
+    }
+
+    // Seed of the shoe's last shuffle; startGame(getRoundSeed(), getRoundStart()) deals the same cards again
+    public long getRoundSeed() {
+        return roundSeed;
+    }
+
+    public int getRoundStart() {
+        return roundStart;
+    }
+
+    public RuleVariant getVariant() {
+        return variant;
+    }
+
+    // Index of the stage being guessed, 0 to getVariant().stages() - 1
+    public int getStage() {
+        return stage;
+    }
+
+    public PayoutTable getPayouts() {
+        return payouts;
+    }
+
+    public ArrayList<Card> getDealtCards() {
+        return dealtCards;
+    }
+
+    public long getDealtMask() {
+        return dealtMask;
+    }
+}
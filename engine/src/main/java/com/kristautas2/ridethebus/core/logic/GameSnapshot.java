@@ -0,0 +1,255 @@
+package com.kristautas2.ridethebus.core.logic;
+
+import com.kristautas2.ridethebus.core.model.Card;
+import com.kristautas2.ridethebus.core.model.CardMask;
+import com.kristautas2.ridethebus.core.model.DealOrder;
+
+import java.util.AbstractList;
+import java.util.List;
+
+// The whole state of a GameManager as an immutable value. Snapshots of the same shuffle share its
+// DealOrder, and the cards of the current round are the positions [roundStart, position) of it, so
+// every transition below is O(1) and allocates one small object: branching "what if I guess higher"
+// costs nothing, and solvers, undo and replay can keep as many continuations as they like.
+// Transitions follow GameManager exactly and throw IllegalStateException when not allowed.
+public final class GameSnapshot {
+    private static final int START_BALANCE = 100; // what Player.newPlayer() restarts with
+    private static final int START_BET = 10;
+    private static final GameManager.OpenCards[] OPEN_CARDS = GameManager.OpenCards.values();
+
+    private final RuleVariant variant;
+    private final DealOrder deal;
+    private final long shuffleSeed;
+    private final int cut;
+    private final int position;   // next card of deal
+    private final int roundStart; // first card of this round
+    private final long dealtMask; // cards of this round, as a CardMask
+    private final Card previousStageCard; // cards that won the last two stages, the context of the next
+    private final Card lastStageCard;     // guess; null until those stages are won
+    private final int stage;
+    private final GameManager.GameState state;
+    private final GameManager.OpenCards openCards;
+    private final long balance;
+    private final int bet;
+    private final int winnings;
+    private final long highScore;
+    private final int defaultBet; // the amount the bet field starts from
+
+    GameSnapshot(RuleVariant variant, DealOrder deal, long shuffleSeed, int cut, int position, int roundStart,
+                 long dealtMask, Card previousStageCard, Card lastStageCard, int stage, GameManager.GameState state,
+                 GameManager.OpenCards openCards, long balance, int bet, int winnings, long highScore,
+                 int defaultBet) {
+        this.variant = variant;
+        this.deal = deal;
+        this.shuffleSeed = shuffleSeed;
+        this.cut = cut;
+        this.position = position;
+        this.roundStart = roundStart;
+        this.dealtMask = dealtMask;
+        this.previousStageCard = previousStageCard;
+        this.lastStageCard = lastStageCard;
+        this.stage = stage;
+        this.state = state;
+        this.openCards = openCards;
+        this.balance = balance;
+        this.bet = bet;
+        this.winnings = winnings;
+        this.highScore = highScore;
+        this.defaultBet = defaultBet;
+    }
+
+    // A new player at the betting stage of a fresh shuffle, for hosting a game without a GameManager
+    public static GameSnapshot newGame(RuleVariant variant, long shuffleSeed) {
+        DealOrder deal = DealOrder.shuffled(variant.getCards(), shuffleSeed);
+        return new GameSnapshot(variant, deal, shuffleSeed, (int) (variant.getPenetration() * deal.size()), 0, 0,
+            CardMask.EMPTY, null, null, 0, GameManager.GameState.BETTING, GameManager.OpenCards.ONE, START_BALANCE,
+            0, 0, START_BALANCE, START_BET);
+    }
+
+    // A player with the given balance about to bet on the round dealt from roundStart of deal (replay)
+    public static GameSnapshot atRound(RuleVariant variant, DealOrder deal, long shuffleSeed, int roundStart,
+                                       long balance) {
+        if (roundStart < 0 || roundStart > deal.size()) {
+            throw new IllegalArgumentException("Round start " + roundStart + " outside the shoe");
+        }
+        return new GameSnapshot(variant, deal, shuffleSeed, (int) (variant.getPenetration() * deal.size()), roundStart,
+            roundStart, CardMask.EMPTY, null, null, 0, GameManager.GameState.BETTING, GameManager.OpenCards.ONE,
+            balance, 0, 0, balance, START_BET);
+    }
+
+    // Same round and stage context
+    private GameSnapshot with(int position, long dealtMask, int stage, GameManager.GameState state,
+                              GameManager.OpenCards openCards, long balance, int bet, int winnings) {
+        return new GameSnapshot(variant, deal, shuffleSeed, cut, position, roundStart, dealtMask, previousStageCard,
+            lastStageCard, stage, state, openCards, balance, bet, winnings, highScore, defaultBet);
+    }
+
+    // GameManager.placeBet
+    public GameSnapshot placeBet(int amount) {
+        if (state != GameManager.GameState.BETTING) {
+            throw new IllegalStateException("No bets in state " + state);
+        }
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be greater than 0");
+        }
+        if (amount > balance) {
+            return with(position, dealtMask, 0, GameManager.GameState.GAME_OVER, openCards, balance, 0, 0);
+        }
+        return new GameSnapshot(variant, deal, shuffleSeed, cut, position, roundStart, dealtMask, null, null, 0,
+            variant.getStage(0).getState(), openCards, balance - amount, amount, 0, highScore, amount);
+    }
+
+    // The guess at the current stage, choice as in RuleVariant.Stage, answered by the next card of the shoe
+    public GameSnapshot guess(int choice) {
+        if (!isGuessing()) {
+            throw new IllegalStateException("No guess in state " + state);
+        }
+        if (choice < 0 || choice >= variant.getStage(stage).getChoices()) {
+            throw new IllegalArgumentException("Choice " + choice + " out of range for " + variant.getStage(stage));
+        }
+        if (position == deal.size()) {
+            throw new IllegalStateException("The shoe is empty");
+        }
+        Card card = deal.card(position);
+        byte outcome = variant.outcome(stage, choice, previousStageCard, lastStageCard, card);
+        long mask = CardMask.with(dealtMask, card);
+        GameManager.OpenCards open = OPEN_CARDS[Math.min(stage, OPEN_CARDS.length - 1)];
+        if (outcome == RuleVariant.PUSH) {
+            return with(position + 1, mask, stage, state, open, balance, bet, winnings);
+        }
+        if (outcome == RuleVariant.LOSE) {
+            if (balance == 0) {
+                return new GameSnapshot(variant, deal, shuffleSeed, cut, position + 1, roundStart, mask,
+                    previousStageCard, lastStageCard, stage, GameManager.GameState.LOST, open, START_BALANCE, 0, 0,
+                    highScore, START_BET);
+            }
+            return with(position + 1, mask, stage, GameManager.GameState.GAME_OVER, open, balance, 0, 0);
+        }
+        int won = variant.getPayouts().payout(bet, stage);
+        if (stage + 1 == variant.stages()) {
+            return new GameSnapshot(variant, deal, shuffleSeed, cut, position + 1, roundStart, mask, lastStageCard,
+                card, stage + 1, GameManager.GameState.GAME_OVER, open, balance + won, bet, won,
+                Math.max(highScore, balance + won), defaultBet);
+        }
+        return new GameSnapshot(variant, deal, shuffleSeed, cut, position + 1, roundStart, mask, lastStageCard, card,
+            stage + 1, variant.getStage(stage + 1).getState(), open, balance, bet, won, highScore, defaultBet);
+    }
+
+    // GameManager.collectWinnings: cash the last stage won and go on to the next round
+    public GameSnapshot collect() {
+        return new GameSnapshot(variant, deal, shuffleSeed, cut, position, position, CardMask.EMPTY, null, null, 0,
+            GameManager.GameState.BETTING, openCards, balance + winnings, 0, 0, Math.max(highScore, balance + winnings),
+            defaultBet);
+    }
+
+    // The next round on the same shuffle; see needsShuffle() for when the table would reshuffle instead
+    public GameSnapshot nextRound() {
+        return new GameSnapshot(variant, deal, shuffleSeed, cut, position, position, CardMask.EMPTY, null, null, 0,
+            GameManager.GameState.BETTING, openCards, balance, 0, 0, highScore, defaultBet);
+    }
+
+    // The next round on a new shuffle (GameManager.startGame(shuffleSeed)); shares the card array, not the order
+    public GameSnapshot shuffled(long shuffleSeed) {
+        return new GameSnapshot(variant, deal.reshuffle(shuffleSeed), shuffleSeed, cut, 0, 0, CardMask.EMPTY, null,
+            null, 0, GameManager.GameState.BETTING, openCards, balance, 0, 0, highScore, defaultBet);
+    }
+
+    public boolean isGuessing() {
+        return stage < variant.stages() && state == variant.getStage(stage).getState();
+    }
+
+    // True once the cut card is out (see Shoe.needsShuffle)
+    public boolean needsShuffle() {
+        return position > 0 && position >= cut;
+    }
+
+    public RuleVariant getVariant() {
+        return variant;
+    }
+
+    public DealOrder getDealOrder() {
+        return deal;
+    }
+
+    public long getShuffleSeed() {
+        return shuffleSeed;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public int getRoundStart() {
+        return roundStart;
+    }
+
+    // Cards of this round, a view over the shared deal order
+    public List<Card> getDealtCards() {
+        return new AbstractList<Card>() {
+            @Override
+            public Card get(int index) {
+                if (index < 0 || index >= size()) {
+                    throw new IndexOutOfBoundsException("Index " + index + ", size " + size());
+                }
+                return deal.card(roundStart + index);
+            }
+
+            @Override
+            public int size() {
+                return position - roundStart;
+            }
+        };
+    }
+
+    public long getDealtMask() {
+        return dealtMask;
+    }
+
+    // The card that won the stage before last, null if there is none yet
+    public Card getPreviousStageCard() {
+        return previousStageCard;
+    }
+
+    // The card that won the last stage, null if there is none yet
+    public Card getLastStageCard() {
+        return lastStageCard;
+    }
+
+    public int getStage() {
+        return stage;
+    }
+
+    public GameManager.GameState getState() {
+        return state;
+    }
+
+    public GameManager.OpenCards getOpenCards() {
+        return openCards;
+    }
+
+    public long getBalance() {
+        return balance;
+    }
+
+    public int getBet() {
+        return bet;
+    }
+
+    public int getWinnings() {
+        return winnings;
+    }
+
+    public long getHighScore() {
+        return highScore;
+    }
+
+    public int getDefaultBet() {
+        return defaultBet;
+    }
+
+    @Override
+    public String toString() {
+        return state + " stage " + stage + ", cards " + getDealtCards() + ", balance " + balance + ", bet " + bet
+            + ", winnings " + winnings;
+    }
+}
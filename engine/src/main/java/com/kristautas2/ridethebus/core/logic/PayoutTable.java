@@ -0,0 +1,114 @@
+package com.kristautas2.ridethebus.core.logic;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+// Payout multiplier for each guess stage, indexed 0 (color) to 3 (suit) in the classic game;
+// rule variants (see RuleVariant) may have any number of stages.
+// Multipliers are fixed-point with three decimals (units = multiplier * SCALE), so fractional
+// tables such as 1.9 / 3.75 / 7.5 / 30 stay exact in integer arithmetic.
+public final class PayoutTable {
+    public static final int STAGES = 4;
+    public static final int SCALE = 1000;
+    public static final PayoutTable DEFAULT = of(2, 4, 8, 32);
+
+    private final int[] units;
+
+    private PayoutTable(int[] units) {
+        this.units = units;
+    }
+
+    public static PayoutTable of(int... multipliers) {
+        int[] units = new int[multipliers.length];
+        for (int i = 0; i < multipliers.length; i++) {
+            units[i] = Math.multiplyExact(multipliers[i], SCALE);
+        }
+        return ofUnits(units);
+    }
+
+    public static PayoutTable ofUnits(int... units) {
+        if (units.length == 0) {
+            throw new IllegalArgumentException("Expected at least one multiplier");
+        }
+        for (int unit : units) {
+            if (unit <= 0) {
+                throw new IllegalArgumentException("Multipliers must be greater than 0");
+            }
+        }
+        return new PayoutTable(units.clone());
+    }
+
+    // Comma separated multipliers with up to three decimals, e.g. "2,4,8,32" or "1.9,3.75,7.5,30"
+    public static PayoutTable parse(String text) {
+        String[] parts = text.split(",");
+        int[] units = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            units[i] = new BigDecimal(parts[i].trim()).movePointRight(3).intValueExact();
+        }
+        return ofUnits(units);
+    }
+
+    // Stage index for a guessing state, or -1 for any other state
+    public static int stageOf(GameManager.GameState state) {
+        switch (state) {
+            case GUESS_COLOR: return 0;
+            case GUESS_HIGHER_LOWER: return 1;
+            case GUESS_INSIDE_OUTSIDE: return 2;
+            case GUESS_SUIT: return 3;
+            default: return -1;
+        }
+    }
+
+    public int stages() {
+        return units.length;
+    }
+
+    // The headless tools model the classic four stages only
+    public PayoutTable requireStages(int stages) {
+        if (units.length != stages) {
+            throw new IllegalArgumentException("Expected " + stages + " multipliers, got " + units.length);
+        }
+        return this;
+    }
+
+    public int units(int stage) {
+        return units[stage];
+    }
+
+    public double multiplier(int stage) {
+        return (double) units[stage] / SCALE;
+    }
+
+    // Winnings for a bet that cleared the stage, rounded down to whole credits
+    public int payout(int bet, int stage) {
+        return Math.toIntExact((long) bet * units[stage] / SCALE);
+    }
+
+    public int payout(int bet, GameManager.GameState state) {
+        int stage = stageOf(state);
+        if (stage < 0) {
+            throw new IllegalArgumentException("No payout for state " + state);
+        }
+        return payout(bet, stage);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof PayoutTable && Arrays.equals(units, ((PayoutTable) o).units);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(units);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < units.length; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(BigDecimal.valueOf(units[i], 3).stripTrailingZeros().toPlainString());
+        }
+        return sb.append(']').toString();
+    }
+}
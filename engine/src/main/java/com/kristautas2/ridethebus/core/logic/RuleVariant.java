@@ -0,0 +1,348 @@
+package com.kristautas2.ridethebus.core.logic;
+
+import com.kristautas2.ridethebus.core.model.Card;
+import com.kristautas2.ridethebus.core.model.Deck;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+// A house variant of the game: which guesses are asked in which order, how ties resolve, what each stage
+// pays and which cards are in the shoe. Variants are read from .properties files (see
+// assets/gameData/variants) and compiled once into flat outcome tables, so resolving a guess is a single
+// array lookup keyed by the guess, the ranks of the cards it is judged against and the new card.
+public final class RuleVariant {
+    public enum Stage {
+        COLOR(GameManager.GameState.GUESS_COLOR, 2, 0),          // choice = Card.Color.ordinal()
+        HIGHER_LOWER(GameManager.GameState.GUESS_HIGHER_LOWER, 2, 1), // 0 = higher, 1 = lower
+        INSIDE_OUTSIDE(GameManager.GameState.GUESS_INSIDE_OUTSIDE, 2, 2), // 0 = inside, 1 = outside
+        SUIT(GameManager.GameState.GUESS_SUIT, 4, 0);            // choice = Card.Suit.ordinal()
+
+        private final GameManager.GameState state;
+        private final int choices;
+        private final int contextCards;
+
+        Stage(GameManager.GameState state, int choices, int contextCards) {
+            this.state = state;
+            this.choices = choices;
+            this.contextCards = contextCards;
+        }
+
+        public GameManager.GameState getState() {
+            return state;
+        }
+
+        public int getChoices() {
+            return choices;
+        }
+
+        // How many cards of earlier stages the guess is judged against (the cards that won them)
+        public int getContextCards() {
+            return contextCards;
+        }
+    }
+
+    // What a card equal to the previous card (higher-lower) or to a boundary (inside-outside) does
+    public enum Tie {LOSE, WIN, PUSH, INSIDE, OUTSIDE}
+
+    public static final byte LOSE = 0;
+    public static final byte WIN = 1;
+    public static final byte PUSH = 2; // the card stays dealt and the same stage is guessed again, same context
+
+    public static final RuleVariant CLASSIC = compile("Classic",
+        new Stage[]{Stage.COLOR, Stage.HIGHER_LOWER, Stage.INSIDE_OUTSIDE, Stage.SUIT},
+        new Tie[]{Tie.LOSE, Tie.LOSE, Tie.OUTSIDE, Tie.LOSE},
+        PayoutTable.DEFAULT, 1, 0, Deck.MIN_VALUE, Deck.MAX_VALUE);
+
+    private final String name;
+    private final Stage[] stages;
+    private final Tie[] ties;
+    private final PayoutTable payouts;
+    private final int decks;
+    private final double penetration;
+    private final int minValue;
+    private final int maxValue;
+    private final List<Card> cards;
+    private final int maxRoundCards;
+    private final int[] contextCards; // per stage, copied out of the enum for the hot path
+    private final byte[][] outcomes;  // per stage, indexed by key(choice, context ranks, new card id)
+
+    private RuleVariant(String name, Stage[] stages, Tie[] ties, PayoutTable payouts, int decks, double penetration,
+                        int minValue, int maxValue, List<Card> cards, int maxRoundCards, byte[][] outcomes) {
+        this.name = name;
+        this.stages = stages;
+        this.ties = ties;
+        this.payouts = payouts;
+        this.decks = decks;
+        this.penetration = penetration;
+        this.minValue = minValue;
+        this.maxValue = maxValue;
+        this.cards = cards;
+        this.maxRoundCards = maxRoundCards;
+        this.outcomes = outcomes;
+        this.contextCards = new int[stages.length];
+        for (int i = 0; i < stages.length; i++) {
+            contextCards[i] = stages[i].contextCards;
+        }
+    }
+
+    public static RuleVariant compile(String name, Stage[] stages, Tie[] ties, PayoutTable payouts,
+                                      int decks, double penetration, int minValue, int maxValue) {
+        if (stages.length == 0 || stages.length != ties.length) {
+            throw new IllegalArgumentException("Every stage needs a tie rule");
+        }
+        if (payouts.stages() != stages.length) {
+            throw new IllegalArgumentException("Expected " + stages.length + " payouts, got " + payouts.stages());
+        }
+        if (decks <= 0) {
+            throw new IllegalArgumentException("Deck count must be greater than 0");
+        }
+        if (!(penetration >= 0 && penetration < 1)) {
+            throw new IllegalArgumentException("Penetration must be in [0, 1), got " + penetration);
+        }
+        if (minValue < Deck.MIN_VALUE || maxValue > Deck.MAX_VALUE || minValue > maxValue) {
+            throw new IllegalArgumentException("Rank range must be within " + Deck.MIN_VALUE + "-" + Deck.MAX_VALUE);
+        }
+        byte[][] outcomes = new byte[stages.length][];
+        for (int i = 0; i < stages.length; i++) {
+            if (stages[i].contextCards > i) {
+                throw new IllegalArgumentException("Stage " + (i + 1) + " (" + stages[i] + ") needs "
+                    + stages[i].contextCards + " earlier cards");
+            }
+            outcomes[i] = outcomeTable(stages[i], ties[i]);
+        }
+        List<Card> cards = new ArrayList<>(decks * 4 * (maxValue - minValue + 1));
+        for (int d = 0; d < decks; d++) {
+            for (Card.Suit suit : Card.Suit.values()) {
+                for (int value = minValue; value <= maxValue; value++) {
+                    cards.add(Card.of(value, suit));
+                }
+            }
+        }
+        // Rounds start until the cut card is out, so the last one may start a card before it and must still
+        // be dealt to the end from what is left: the shoe never runs dry mid-round
+        int maxRoundCards = maxRoundCards(stages, ties, decks);
+        int cut = (int) (penetration * cards.size());
+        int behindCut = cards.size() - Math.max(cut - 1, 0);
+        if (behindCut < maxRoundCards) {
+            throw new IllegalArgumentException("Penetration " + penetration + " leaves " + behindCut
+                + " cards for the last round, which can take " + maxRoundCards);
+        }
+        return new RuleVariant(name, stages.clone(), ties.clone(), payouts, decks, penetration, minValue, maxValue,
+            Collections.unmodifiableList(cards), maxRoundCards, outcomes);
+    }
+
+    // A card per stage plus every card a pushing stage can deal again: the other copies of the rank it
+    // is tied with (higher-lower) or of both boundary ranks (inside-outside)
+    private static int maxRoundCards(Stage[] stages, Tie[] ties, int decks) {
+        int copies = 4 * decks;
+        int cards = 0;
+        for (int i = 0; i < stages.length; i++) {
+            cards++;
+            if (ties[i] == Tie.PUSH) {
+                cards += stages[i] == Stage.HIGHER_LOWER ? copies - 1 : 2 * copies - 2;
+            }
+        }
+        return cards;
+    }
+
+    // Keys: choice, then the rank of each context card (oldest first), then the new card id
+    private static byte[] outcomeTable(Stage stage, Tie tie) {
+        switch (stage) {
+            case HIGHER_LOWER:
+                if (tie == Tie.INSIDE || tie == Tie.OUTSIDE) {
+                    throw new IllegalArgumentException("Higher-lower ties can only lose, win or push");
+                }
+                break;
+            case COLOR:
+            case SUIT:
+                if (tie != Tie.LOSE) {
+                    throw new IllegalArgumentException(stage + " has no ties");
+                }
+                break;
+            default:
+        }
+        int contexts = stage.contextCards == 0 ? 1 : stage.contextCards == 1 ? Card.RANKS : Card.RANKS * Card.RANKS;
+        byte[] table = new byte[stage.choices * contexts * Card.COUNT];
+        for (int choice = 0; choice < stage.choices; choice++) {
+            for (int context = 0; context < contexts; context++) {
+                int first = context / Card.RANKS + Deck.MIN_VALUE;
+                int last = context % Card.RANKS + Deck.MIN_VALUE;
+                for (Card card : Card.allCards()) {
+                    table[(choice * contexts + context) * Card.COUNT + card.getId()] =
+                        resolve(stage, tie, choice, first, last, card);
+                }
+            }
+        }
+        return table;
+    }
+
+    private static byte resolve(Stage stage, Tie tie, int choice, int first, int last, Card card) {
+        int value = card.getCardValue();
+        switch (stage) {
+            case COLOR:
+                return card.getCardColor().ordinal() == choice ? WIN : LOSE;
+            case SUIT:
+                return card.getCardSuit().ordinal() == choice ? WIN : LOSE;
+            case HIGHER_LOWER:
+                if (value == last) return tie == Tie.WIN ? WIN : tie == Tie.PUSH ? PUSH : LOSE;
+                return (choice == 0) == (value > last) ? WIN : LOSE;
+            default:
+                int min = Math.min(first, last);
+                int max = Math.max(first, last);
+                boolean inside;
+                if (value == min || value == max) {
+                    if (tie == Tie.WIN) return WIN;
+                    if (tie == Tie.LOSE) return LOSE;
+                    if (tie == Tie.PUSH) return PUSH;
+                    inside = tie == Tie.INSIDE;
+                } else {
+                    inside = value > min && value < max;
+                }
+                return (choice == 0) == inside ? WIN : LOSE;
+        }
+    }
+
+    // WIN, LOSE or PUSH for a guess at the given stage answered by card. previous and last are the cards
+    // that won the two stages before this one and are only read by stages that look at them; a pushed
+    // card stays dealt but never becomes context, so a stage is judged against the same cards however
+    // many times it pushes.
+    public byte outcome(int stage, int choice, Card previous, Card last, Card card) {
+        int key = choice;
+        if (contextCards[stage] == 2) {
+            key = key * Card.RANKS + previous.getCardValue() - Deck.MIN_VALUE;
+        }
+        if (contextCards[stage] >= 1) {
+            key = key * Card.RANKS + last.getCardValue() - Deck.MIN_VALUE;
+        }
+        return outcomes[stage][key * Card.COUNT + card.getId()];
+    }
+
+    public RuleVariant withPayouts(PayoutTable payouts) {
+        if (payouts.equals(this.payouts)) return this;
+        return compile(name, stages, ties, payouts, decks, penetration, minValue, maxValue);
+    }
+
+    // Reads a variant file:
+    //   name=Classic
+    //   stages=color, higher-lower:lose, inside-outside:outside, suit
+    //   payouts=2,4,8,32
+    //   decks=1
+    //   penetration=0
+    //   ranks=2-14
+    // Stages take an optional tie rule after a colon (lose, win, push, inside, outside).
+    // penetration is the share of the shoe dealt before reshuffling; 0 shuffles before every round. It must
+    // leave enough cards behind the cut card for the longest round the stages and ties allow.
+    // Everything but stages and payouts defaults to the classic game.
+    public static RuleVariant parse(Reader reader) throws IOException {
+        Properties properties = new Properties();
+        properties.load(reader);
+        String name = properties.getProperty("name", "Unnamed");
+        String stageList = properties.getProperty("stages");
+        String payoutList = properties.getProperty("payouts");
+        if (stageList == null || payoutList == null) {
+            throw new IllegalArgumentException("Variant " + name + " needs stages and payouts");
+        }
+        String[] parts = stageList.split(",");
+        Stage[] stages = new Stage[parts.length];
+        Tie[] ties = new Tie[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            String[] stageAndTie = parts[i].trim().split(":");
+            stages[i] = Stage.valueOf(constant(stageAndTie[0]));
+            ties[i] = stageAndTie.length > 1 ? Tie.valueOf(constant(stageAndTie[1]))
+                : stages[i] == Stage.INSIDE_OUTSIDE ? Tie.OUTSIDE : Tie.LOSE;
+        }
+        String[] ranks = properties.getProperty("ranks", Deck.MIN_VALUE + "-" + Deck.MAX_VALUE).split("-");
+        return compile(name, stages, ties, PayoutTable.parse(payoutList),
+            Integer.parseInt(properties.getProperty("decks", "1").trim()),
+            Double.parseDouble(properties.getProperty("penetration", "0").trim()),
+            Integer.parseInt(ranks[0].trim()), Integer.parseInt(ranks[ranks.length - 1].trim()));
+    }
+
+    public static RuleVariant load(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return parse(reader);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(file + ": " + e.getMessage(), e);
+        }
+    }
+
+    // Every *.properties variant in a directory, by name
+    public static List<RuleVariant> loadAll(Path directory) throws IOException {
+        List<RuleVariant> variants = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.properties")) {
+            for (Path file : files) {
+                variants.add(load(file));
+            }
+        }
+        variants.sort(Comparator.comparing(RuleVariant::getName));
+        return variants;
+    }
+
+    private static String constant(String text) {
+        return text.trim().toUpperCase(Locale.ROOT).replace('-', '_');
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int stages() {
+        return stages.length;
+    }
+
+    public Stage getStage(int stage) {
+        return stages[stage];
+    }
+
+    public Tie getTie(int stage) {
+        return ties[stage];
+    }
+
+    public PayoutTable getPayouts() {
+        return payouts;
+    }
+
+    public int getDecks() {
+        return decks;
+    }
+
+    // Share of the shoe dealt before the cut card, see Shoe
+    public double getPenetration() {
+        return penetration;
+    }
+
+    public int getMinValue() {
+        return minValue;
+    }
+
+    public int getMaxValue() {
+        return maxValue;
+    }
+
+    // Every card in the shoe, decks times
+    public List<Card> getCards() {
+        return cards;
+    }
+
+    // The most cards one round can deal, pushes included
+    public int getMaxRoundCards() {
+        return maxRoundCards;
+    }
+
+    @Override
+    public String toString() {
+        return name + " " + Arrays.toString(stages) + " " + payouts + " x" + decks + " decks, ranks "
+            + minValue + "-" + maxValue + ", penetration " + penetration;
+    }
+}
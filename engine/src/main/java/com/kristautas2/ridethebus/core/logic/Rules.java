@@ -0,0 +1,30 @@
+package com.kristautas2.ridethebus.core.logic;
+
+import com.kristautas2.ridethebus.core.model.Card;
+
+// Outcome of each guess, shared by GameManager and the headless tools so they can never disagree
+public final class Rules {
+    private Rules() {
+    }
+
+    public static boolean colorWins(Card.Color guess, Card card) {
+        return card.getCardColor() == guess;
+    }
+
+    // Equal values always lose
+    public static boolean higherLowerWins(boolean higher, int previousValue, int newValue) {
+        return higher ? newValue > previousValue : newValue < previousValue;
+    }
+
+    // A card equal to either boundary counts as outside
+    public static boolean insideOutsideWins(boolean inside, int firstValue, int secondValue, int newValue) {
+        int min = Math.min(firstValue, secondValue);
+        int max = Math.max(firstValue, secondValue);
+        boolean isInside = newValue > min && newValue < max;
+        return inside == isInside;
+    }
+
+    public static boolean suitWins(Card.Suit guess, Card card) {
+        return card.getCardSuit() == guess;
+    }
+}
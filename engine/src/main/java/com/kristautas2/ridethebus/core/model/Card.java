@@ -0,0 +1,126 @@
+package com.kristautas2.ridethebus.core.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public final class Card {
+    public enum Color {
+        RED("red"), BLACK("black");
+
+        private final String name;
+
+        Color(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    public enum Suit {
+        HEARTS("hearts", Color.RED),
+        DIAMONDS("diamonds", Color.RED),
+        CLUBS("clubs", Color.BLACK),
+        SPADES("spades", Color.BLACK);
+
+        private final String name;
+        private final Color color;
+
+        Suit(String name, Color color) {
+            this.name = name;
+            this.color = color;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Color getColor() {
+            return color;
+        }
+    }
+
+    public static final int RANKS = Deck.MAX_VALUE - Deck.MIN_VALUE + 1;
+    public static final int COUNT = 4 * RANKS;
+
+    // The only Card instances that exist, indexed by id (suit ordinal * RANKS + value - MIN_VALUE)
+    static final Card[] ALL = new Card[COUNT];
+    private static final List<Card> ALL_LIST = Collections.unmodifiableList(Arrays.asList(ALL));
+
+    static {
+        for (Suit suit : Suit.values()) {
+            for (int value = Deck.MIN_VALUE; value <= Deck.MAX_VALUE; value++) {
+                int id = suit.ordinal() * RANKS + value - Deck.MIN_VALUE;
+                ALL[id] = new Card(id, value, suit);
+            }
+        }
+    }
+
+    private final int id;
+    private final int cardValue;
+    private final Suit cardSuit;
+    private final String cardName;
+    private final String imagePath;
+
+    private Card(int id, int cardValue, Suit cardSuit) {
+        this.id = id;
+        this.cardValue = cardValue;
+        this.cardSuit = cardSuit;
+        String name;
+        switch (cardValue) {
+            case 11: name = "jack"; break;
+            case 12: name = "queen"; break;
+            case 13: name = "king"; break;
+            case 14: name = "ace"; break;
+            default: name = String.valueOf(cardValue);
+        }
+        this.cardName = name + "_of_" + cardSuit.getName();
+        this.imagePath = "cards/" + cardName + ".png";
+    }
+
+    public static Card of(int cardValue, Suit cardSuit) {
+        if (cardValue < Deck.MIN_VALUE || cardValue > Deck.MAX_VALUE) {
+            throw new IllegalArgumentException("Card value out of range: " + cardValue);
+        }
+        return ALL[cardSuit.ordinal() * RANKS + cardValue - Deck.MIN_VALUE];
+    }
+
+    public static Card byId(int id) {
+        return ALL[id];
+    }
+
+    public static List<Card> allCards() {
+        return ALL_LIST;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getCardName() {
+        return cardName;
+    }
+
+    public String getImagePath() {
+        return imagePath;
+    }
+
+    public int getCardValue() {
+        return cardValue;
+    }
+
+    public Suit getCardSuit() {
+        return cardSuit;
+    }
+
+    public Color getCardColor() {
+        return cardSuit.getColor();
+    }
+
+    @Override
+    public String toString() {
+        return cardName;
+    }
+}
@@ -0,0 +1,79 @@
+package com.kristautas2.ridethebus.core.model;
+
+// A set of cards as one long: bit id is set when Card.byId(id) is in the set.
+// Suits occupy consecutive 13-bit rows, so rank and suit queries are a mask and a bitCount.
+public final class CardMask {
+    public static final long EMPTY = 0L;
+    public static final long FULL = (1L << Card.COUNT) - 1;
+    public static final int RANK_ROW = (1 << Card.RANKS) - 1;
+
+    private static final long[] VALUE_MASKS = new long[Card.RANKS];
+    private static final long[] SUIT_MASKS = new long[Card.Suit.values().length];
+
+    static {
+        for (Card.Suit suit : Card.Suit.values()) {
+            SUIT_MASKS[suit.ordinal()] = (long) RANK_ROW << (suit.ordinal() * Card.RANKS);
+            for (int rank = 0; rank < Card.RANKS; rank++) {
+                VALUE_MASKS[rank] |= 1L << (suit.ordinal() * Card.RANKS + rank);
+            }
+        }
+    }
+
+    private CardMask() {
+    }
+
+    public static long of(Card card) {
+        return 1L << card.getId();
+    }
+
+    public static long with(long mask, Card card) {
+        return mask | 1L << card.getId();
+    }
+
+    public static boolean contains(long mask, Card card) {
+        return (mask >>> card.getId() & 1L) != 0;
+    }
+
+    public static int size(long mask) {
+        return Long.bitCount(mask);
+    }
+
+    // Cards of a standard deck not in the mask
+    public static long complement(long mask) {
+        return ~mask & FULL;
+    }
+
+    public static long valueMask(int value) {
+        return VALUE_MASKS[value - Deck.MIN_VALUE];
+    }
+
+    public static long suitMask(Card.Suit suit) {
+        return SUIT_MASKS[suit.ordinal()];
+    }
+
+    public static int countOfValue(long mask, int value) {
+        return Long.bitCount(mask & VALUE_MASKS[value - Deck.MIN_VALUE]);
+    }
+
+    public static int countOfSuit(long mask, Card.Suit suit) {
+        return Long.bitCount(mask & SUIT_MASKS[suit.ordinal()]);
+    }
+
+    // 13-bit row of the ranks held in one suit, bit 0 = MIN_VALUE
+    public static int suitRow(long mask, Card.Suit suit) {
+        return (int) (mask >>> (suit.ordinal() * Card.RANKS)) & RANK_ROW;
+    }
+
+    // 13-bit row of the ranks present in any suit
+    public static int valuesPresent(long mask) {
+        return (int) (mask | mask >>> Card.RANKS | mask >>> 2 * Card.RANKS | mask >>> 3 * Card.RANKS) & RANK_ROW;
+    }
+
+    // Well-mixed 64-bit hash (SplitMix64 finalizer) for hash tables keyed by card sets
+    public static long hash(long mask) {
+        long z = mask + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,37 @@
+package com.kristautas2.ridethebus.core.model;
+
+import java.util.List;
+
+// One shuffle of a deck or shoe, frozen: the card at every position. Deck hands out the same instance
+// until it shuffles again (copy-on-write), so every GameSnapshot taken in between shares it.
+public final class DealOrder {
+    final Card[] cards;
+    final int[] order;
+
+    DealOrder(Card[] cards, int[] order) {
+        this.cards = cards;
+        this.order = order;
+    }
+
+    // The order a Deck of these cards deals after shuffle(seed), without a Deck
+    public static DealOrder shuffled(List<Card> cards, long seed) {
+        int[] order = new int[cards.size()];
+        Deck.shuffle(order, seed);
+        return new DealOrder(cards.toArray(new Card[0]), order);
+    }
+
+    // The same cards in the order of shuffle(seed); shares the card array, so only the order is allocated
+    public DealOrder reshuffle(long seed) {
+        int[] reordered = new int[order.length];
+        Deck.shuffle(reordered, seed);
+        return new DealOrder(cards, reordered);
+    }
+
+    public Card card(int position) {
+        return cards[order[position]];
+    }
+
+    public int size() {
+        return order.length;
+    }
+}
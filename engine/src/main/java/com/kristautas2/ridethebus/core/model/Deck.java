@@ -0,0 +1,161 @@
+package com.kristautas2.ridethebus.core.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class Deck {
+    public static final int MIN_VALUE = 2;
+    public static final int MAX_VALUE = 14;
+
+    private final Card[] cards;
+    private int[] order; // indices into cards, shuffled in place unless shared
+    private DealOrder shared; // the current order as handed out by shareOrder(), if it was
+    private final RandomSource random;
+    private int cursor; // next position in order to draw from
+
+    public Deck() {
+        this(new SplittableRandom()::nextInt);
+    }
+
+    public Deck(RandomSource random) {
+        this(Card.ALL, random);
+    }
+
+    public Deck(List<Card> customCards) {
+        this(customCards, new SplittableRandom()::nextInt);
+    }
+
+    // Any composition, e.g. several decks or a stripped deck (see RuleVariant.getCards())
+    public Deck(List<Card> customCards, RandomSource random) {
+        this(customCards.toArray(new Card[0]), random);
+    }
+
+    private Deck(Card[] cards, RandomSource random) {
+        this.cards = cards;
+        this.order = new int[cards.length];
+        this.random = random;
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        shuffle();
+    }
+
+    // Every card of the given number of full decks
+    public static List<Card> copies(int decks) {
+        if (decks <= 0) {
+            throw new IllegalArgumentException("Deck count must be greater than 0");
+        }
+        List<Card> cards = new ArrayList<>(decks * Card.COUNT);
+        for (int i = 0; i < decks; i++) {
+            cards.addAll(Card.allCards());
+        }
+        return cards;
+    }
+
+    // Puts every card back and reshuffles (Fisher-Yates), without allocating unless the order was shared
+    public void shuffle() {
+        unshare();
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        cursor = 0;
+    }
+
+    // Puts every card back and shuffles only the first cards positions (Fisher-Yates stopped early): those cards
+    // are a uniform draw without replacement, the rest keep whatever order they had. For simulations that deal
+    // a few cards per shuffle; draw no more than cards before the next shuffle.
+    public void shuffleFirst(int cards) {
+        if (cards < 0 || cards > order.length) {
+            throw new IllegalArgumentException("Cannot shuffle " + cards + " of " + order.length + " cards");
+        }
+        unshare();
+        for (int i = 0; i < cards && i < order.length - 1; i++) {
+            int j = i + random.nextInt(order.length - i);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        cursor = 0;
+    }
+
+    // Reshuffles into the order fully determined by seed, whatever the current order, without allocating.
+    // Deals the same cards for the same seed, which is what makes a round replayable.
+    public void shuffle(long seed) {
+        unshare();
+        shuffle(order, seed);
+        cursor = 0;
+    }
+
+    static void shuffle(int[] order, long seed) {
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        long state = seed;
+        for (int i = order.length - 1; i > 0; i--) {
+            // Unbiased bounded int from a SplitMix64 stream (multiply-shift with rejection)
+            long bound = i + 1;
+            long threshold = (0x100000000L - bound) % bound;
+            long product;
+            do {
+                state += RandomStreams.GOLDEN_GAMMA;
+                product = (RandomStreams.mix64(state) >>> 32) * bound;
+            } while ((product & 0xFFFFFFFFL) < threshold);
+            int j = (int) (product >>> 32);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+    }
+
+    // The current order as an immutable value; O(1), the next shuffle copies the array instead
+    public DealOrder shareOrder() {
+        if (shared == null) {
+            shared = new DealOrder(cards, order);
+        }
+        return shared;
+    }
+
+    // Back to a shared order with position cards already drawn
+    public void restore(DealOrder dealOrder, int position) {
+        if (dealOrder.cards != cards) {
+            throw new IllegalArgumentException("Order belongs to a different deck");
+        }
+        if (position < 0 || position > dealOrder.size()) {
+            throw new IllegalArgumentException("Position " + position + " outside the deck");
+        }
+        order = dealOrder.order;
+        shared = dealOrder;
+        cursor = position;
+    }
+
+    private void unshare() {
+        if (shared != null) {
+            order = order.clone();
+            shared = null;
+        }
+    }
+
+    public Card drawCard() {
+        if (cursor == order.length) {
+            throw new IllegalStateException("Cannot draw from an empty deck");
+        }
+        return cards[order[cursor++]];
+    }
+
+    // Cards drawn since the last shuffle
+    public int position() {
+        return cursor;
+    }
+
+    public int size() {
+        return order.length - cursor;
+    }
+
+    public boolean isEmpty() {
+        return cursor == order.length;
+    }
+}
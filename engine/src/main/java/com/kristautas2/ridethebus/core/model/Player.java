@@ -6,6 +6,13 @@ public class Player {
     private int currentBet;
     private int totalWinnings;
     private long highScore;
+    // Lifetime stats, kept across rounds and restarts (see PlayerStore)
+    private long rounds;      // bets placed
+    private long paidRounds;  // rounds that paid anything back
+    private long wagered;
+    private long paidOut;     // winnings credited to the balance
+    private long biggestWin;
+    private int restarts;     // times the balance was reset to the start
 
     public Player() {
         this.currentBet = 0;
@@ -23,6 +30,8 @@ public class Player {
         }
         balance -= amount;
         currentBet = amount;
+        rounds++;
+        wagered += amount;
     }
 
     public long getBalance() {
@@ -39,6 +48,11 @@ public class Player {
 
     public void addWinningsToBalance() {
         balance += totalWinnings; // Add winnings to balance
+        if (totalWinnings > 0) {
+            paidRounds++;
+            paidOut += totalWinnings;
+            biggestWin = Math.max(biggestWin, totalWinnings);
+        }
         if(highScore < balance){
             highScore = balance;
         }
@@ -60,9 +74,29 @@ public class Player {
         this.balance = balance;
     }
 
+    // Puts back every field a GameSnapshot records
+    public void restore(long balance, int currentBet, int totalWinnings, long highScore, int defaultBet) {
+        this.balance = balance;
+        this.currentBet = currentBet;
+        this.totalWinnings = totalWinnings;
+        this.highScore = highScore;
+        this.defaultBet = defaultBet;
+    }
+
+    // The lifetime stats as stored by PlayerStore
+    public void restoreStats(long rounds, long paidRounds, long wagered, long paidOut, long biggestWin, int restarts) {
+        this.rounds = rounds;
+        this.paidRounds = paidRounds;
+        this.wagered = wagered;
+        this.paidOut = paidOut;
+        this.biggestWin = biggestWin;
+        this.restarts = restarts;
+    }
+
     public void newPlayer() {
         balance = 100;
         defaultBet = 10;
+        restarts++;
     }
 
     public int getHighScore() {
@@ -72,4 +106,28 @@ public class Player {
     public void setHighScore(int i) {
         highScore = i;
     }
+
+    public long getRounds() {
+        return rounds;
+    }
+
+    public long getPaidRounds() {
+        return paidRounds;
+    }
+
+    public long getWagered() {
+        return wagered;
+    }
+
+    public long getPaidOut() {
+        return paidOut;
+    }
+
+    public long getBiggestWin() {
+        return biggestWin;
+    }
+
+    public int getRestarts() {
+        return restarts;
+    }
 }
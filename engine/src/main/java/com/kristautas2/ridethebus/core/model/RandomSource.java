@@ -0,0 +1,6 @@
+package com.kristautas2.ridethebus.core.model;
+
+// Anything that can hand out a uniform int in [0, bound), e.g. new Random()::nextInt
+public interface RandomSource {
+    int nextInt(int bound);
+}
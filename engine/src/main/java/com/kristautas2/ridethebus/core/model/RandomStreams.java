@@ -0,0 +1,31 @@
+package com.kristautas2.ridethebus.core.model;
+
+import java.util.SplittableRandom;
+
+// Independent, reproducible random streams derived from one master seed.
+// stream(i) depends only on the master seed and i, so every session or worker can own its
+// generator without sharing state, and any run can be repeated from the master seed.
+public final class RandomStreams {
+    static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final long masterSeed;
+
+    public RandomStreams(long masterSeed) {
+        this.masterSeed = masterSeed;
+    }
+
+    public long getMasterSeed() {
+        return masterSeed;
+    }
+
+    public SplittableRandom stream(long index) {
+        return new SplittableRandom(mix64(masterSeed + mix64(index + GOLDEN_GAMMA)));
+    }
+
+    // SplitMix64 finalizer
+    static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
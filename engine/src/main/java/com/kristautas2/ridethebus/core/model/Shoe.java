@@ -0,0 +1,130 @@
+package com.kristautas2.ridethebus.core.model;
+
+import java.util.List;
+
+// Several decks dealt across rounds until the cut card comes out, the way the tables deal.
+// The rank and suit counts of the cards still in the shoe (and the Hi-Lo running count) are
+// updated in O(1) per draw, and a reshuffle only costs one pass over the order array.
+public class Shoe {
+    // Hi-Lo tags by rank: 2-6 count +1, 7-9 count 0, 10-ace count -1
+    private static final int[] HI_LO = {1, 1, 1, 1, 1, 0, 0, 0, -1, -1, -1, -1, -1};
+
+    private final Deck deck;
+    private final int total;
+    private final int cut; // reshuffle before a round once this many cards have been dealt
+    private final int[] fullRankCounts = new int[Card.RANKS];
+    private final int[] fullSuitCounts = new int[Card.Suit.values().length];
+    private final int[] rankCounts = new int[Card.RANKS];
+    private final int[] suitCounts = new int[Card.Suit.values().length];
+    private int runningCount;
+
+    public Shoe(int decks, double penetration, RandomSource random) {
+        this(Deck.copies(decks), penetration, random);
+    }
+
+    // penetration is the fraction of the shoe dealt before the cut card; 0 reshuffles every round.
+    // RuleVariant checks that a whole round still fits behind it.
+    public Shoe(List<Card> cards, double penetration, RandomSource random) {
+        if (cards.isEmpty()) {
+            throw new IllegalArgumentException("A shoe needs at least one card");
+        }
+        if (!(penetration >= 0 && penetration < 1)) {
+            throw new IllegalArgumentException("Penetration must be in [0, 1), got " + penetration);
+        }
+        this.deck = new Deck(cards, random);
+        this.total = cards.size();
+        this.cut = (int) (penetration * total);
+        for (int i = 0; i < cards.size(); i++) {
+            Card card = cards.get(i);
+            fullRankCounts[card.getCardValue() - Deck.MIN_VALUE]++;
+            fullSuitCounts[card.getCardSuit().ordinal()]++;
+        }
+        resetCounts();
+    }
+
+    // True once the cut card is out; checked between rounds, never mid-round
+    public boolean needsShuffle() {
+        int dealt = dealt();
+        return dealt > 0 && dealt >= cut;
+    }
+
+    public void shuffle() {
+        deck.shuffle();
+        resetCounts();
+    }
+
+    // Same order for the same seed (see Deck.shuffle(long))
+    public void shuffle(long seed) {
+        deck.shuffle(seed);
+        resetCounts();
+    }
+
+    // The current shuffle as an immutable value (see Deck.shareOrder)
+    public DealOrder shareOrder() {
+        return deck.shareOrder();
+    }
+
+    // Back to a shared shuffle with dealt cards out; recounts the dealt cards, so O(dealt)
+    public void restore(DealOrder dealOrder, int dealt) {
+        deck.restore(dealOrder, dealt);
+        resetCounts();
+        for (int i = 0; i < dealt; i++) {
+            Card card = dealOrder.card(i);
+            rankCounts[card.getCardValue() - Deck.MIN_VALUE]--;
+            suitCounts[card.getCardSuit().ordinal()]--;
+            runningCount += HI_LO[card.getCardValue() - Deck.MIN_VALUE];
+        }
+    }
+
+    public Card drawCard() {
+        Card card = deck.drawCard();
+        rankCounts[card.getCardValue() - Deck.MIN_VALUE]--;
+        suitCounts[card.getCardSuit().ordinal()]--;
+        runningCount += HI_LO[card.getCardValue() - Deck.MIN_VALUE];
+        return card;
+    }
+
+    private void resetCounts() {
+        System.arraycopy(fullRankCounts, 0, rankCounts, 0, rankCounts.length);
+        System.arraycopy(fullSuitCounts, 0, suitCounts, 0, suitCounts.length);
+        runningCount = 0;
+    }
+
+    public int remainingOfValue(int value) {
+        return rankCounts[value - Deck.MIN_VALUE];
+    }
+
+    public int remainingOfSuit(Card.Suit suit) {
+        return suitCounts[suit.ordinal()];
+    }
+
+    public int size() {
+        return deck.size();
+    }
+
+    public boolean isEmpty() {
+        return deck.isEmpty();
+    }
+
+    public int dealt() {
+        return total - deck.size();
+    }
+
+    public int total() {
+        return total;
+    }
+
+    public int getCutCard() {
+        return cut;
+    }
+
+    // Hi-Lo running count of the cards dealt since the last shuffle
+    public int getRunningCount() {
+        return runningCount;
+    }
+
+    // Running count per full deck still in the shoe
+    public double getTrueCount() {
+        return size() == 0 ? 0 : runningCount * (double) Card.COUNT / size();
+    }
+}
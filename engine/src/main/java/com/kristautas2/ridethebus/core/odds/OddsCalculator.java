@@ -0,0 +1,236 @@
+package com.kristautas2.ridethebus.core.odds;
+
+import com.kristautas2.ridethebus.core.logic.PayoutTable;
+import com.kristautas2.ridethebus.core.logic.RuleVariant;
+import com.kristautas2.ridethebus.core.model.Card;
+import com.kristautas2.ridethebus.core.model.CardMask;
+import com.kristautas2.ridethebus.core.model.Deck;
+
+import java.util.HashSet;
+import java.util.List;
+
+// Exact odds of every answer from the rank and suit histograms of the cards still in the deck.
+// remove() is O(1) per dealt card and every query is at most one pass over the 13 ranks.
+public final class OddsCalculator {
+    private static final Card.Suit[] SUITS = Card.Suit.values();
+
+    private final boolean singleDeck;
+    private final int[] fullRankCounts = new int[Card.RANKS];
+    private final int[] fullSuitCounts = new int[Card.Suit.values().length];
+    private final int full;
+    private final int[] rankCounts = new int[Card.RANKS];
+    private final int[] suitCounts = new int[Card.Suit.values().length];
+    private int remaining;
+
+    public OddsCalculator() {
+        this(1);
+    }
+
+    public OddsCalculator(int decks) {
+        if (decks <= 0) {
+            throw new IllegalArgumentException("Deck count must be greater than 0");
+        }
+        this.singleDeck = decks == 1;
+        for (int i = 0; i < fullRankCounts.length; i++) {
+            fullRankCounts[i] = 4 * decks;
+        }
+        for (int i = 0; i < fullSuitCounts.length; i++) {
+            fullSuitCounts[i] = Card.RANKS * decks;
+        }
+        this.full = Card.COUNT * decks;
+        reset();
+    }
+
+    // Odds for any shoe composition, e.g. RuleVariant.getCards()
+    public OddsCalculator(List<Card> composition) {
+        for (int i = 0; i < composition.size(); i++) {
+            Card card = composition.get(i);
+            fullRankCounts[card.getCardValue() - Deck.MIN_VALUE]++;
+            fullSuitCounts[card.getCardSuit().ordinal()]++;
+        }
+        this.full = composition.size();
+        this.singleDeck = full == Card.COUNT && new HashSet<>(composition).size() == Card.COUNT;
+        reset();
+    }
+
+    // Back to a full shoe
+    public void reset() {
+        System.arraycopy(fullRankCounts, 0, rankCounts, 0, rankCounts.length);
+        System.arraycopy(fullSuitCounts, 0, suitCounts, 0, suitCounts.length);
+        remaining = full;
+    }
+
+    public void remove(Card card) {
+        int rank = card.getCardValue() - Deck.MIN_VALUE;
+        int suit = card.getCardSuit().ordinal();
+        if (rankCounts[rank] == 0 || suitCounts[suit] == 0) {
+            throw new IllegalStateException("Card already dealt: " + card);
+        }
+        rankCounts[rank]--;
+        suitCounts[suit]--;
+        remaining--;
+    }
+
+    // Rebuilds the histograms of a single deck from the set of dealt cards
+    public void setDealt(long dealtMask) {
+        if (!singleDeck) {
+            throw new IllegalStateException("A card mask can only describe a single deck");
+        }
+        long remainingMask = CardMask.complement(dealtMask);
+        for (int value = Deck.MIN_VALUE; value <= Deck.MAX_VALUE; value++) {
+            rankCounts[value - Deck.MIN_VALUE] = CardMask.countOfValue(remainingMask, value);
+        }
+        for (Card.Suit suit : SUITS) {
+            suitCounts[suit.ordinal()] = CardMask.countOfSuit(remainingMask, suit);
+        }
+        remaining = CardMask.size(remainingMask);
+    }
+
+    public void removeAll(List<Card> cards) {
+        for (int i = 0; i < cards.size(); i++) {
+            remove(cards.get(i));
+        }
+    }
+
+    public int remaining() {
+        return remaining;
+    }
+
+    public int remainingOfValue(int value) {
+        return rankCounts[value - Deck.MIN_VALUE];
+    }
+
+    public int remainingOfSuit(Card.Suit suit) {
+        return suitCounts[suit.ordinal()];
+    }
+
+    public double color(Card.Color color) {
+        int count = 0;
+        for (Card.Suit suit : SUITS) {
+            if (suit.getColor() == color) {
+                count += suitCounts[suit.ordinal()];
+            }
+        }
+        return probability(count);
+    }
+
+    public double suit(Card.Suit suit) {
+        return probability(suitCounts[suit.ordinal()]);
+    }
+
+    // Higher-lower and inside-outside below use the classic ties: an equal card loses higher-lower and
+    // counts as outside. The overloads taking a RuleVariant.Tie follow any variant's tie rule.
+    public double higher(int previousValue) {
+        return higher(previousValue, RuleVariant.Tie.LOSE);
+    }
+
+    public double lower(int previousValue) {
+        return lower(previousValue, RuleVariant.Tie.LOSE);
+    }
+
+    public double inside(int firstValue, int secondValue) {
+        return inside(firstValue, secondValue, RuleVariant.Tie.OUTSIDE);
+    }
+
+    public double outside(int firstValue, int secondValue) {
+        return outside(firstValue, secondValue, RuleVariant.Tie.OUTSIDE);
+    }
+
+    public double higher(int previousValue, RuleVariant.Tie tie) {
+        return probability(countBetween(previousValue + 1, Deck.MAX_VALUE) + (tie == RuleVariant.Tie.WIN
+            ? countBetween(previousValue, previousValue) : 0));
+    }
+
+    public double lower(int previousValue, RuleVariant.Tie tie) {
+        return probability(countBetween(Deck.MIN_VALUE, previousValue - 1) + (tie == RuleVariant.Tie.WIN
+            ? countBetween(previousValue, previousValue) : 0));
+    }
+
+    // Strictly between the two values, plus the boundary cards when a tie wins or counts as inside
+    public double inside(int firstValue, int secondValue, RuleVariant.Tie tie) {
+        int min = Math.min(firstValue, secondValue);
+        int max = Math.max(firstValue, secondValue);
+        boolean boundaryWins = tie == RuleVariant.Tie.WIN || tie == RuleVariant.Tie.INSIDE;
+        return probability(countBetween(min + 1, max - 1) + (boundaryWins ? boundaryCount(min, max) : 0));
+    }
+
+    public double outside(int firstValue, int secondValue, RuleVariant.Tie tie) {
+        int min = Math.min(firstValue, secondValue);
+        int max = Math.max(firstValue, secondValue);
+        boolean boundaryWins = tie == RuleVariant.Tie.WIN || tie == RuleVariant.Tie.OUTSIDE;
+        return probability(countBetween(Deck.MIN_VALUE, min - 1) + countBetween(max + 1, Deck.MAX_VALUE)
+            + (boundaryWins ? boundaryCount(min, max) : 0));
+    }
+
+    // Chance that the next card wins choice (as in RuleVariant.Stage) at the given stage of variant, under
+    // that stage's tie rule. previous and last are the cards that won the two stages before it.
+    public double win(RuleVariant variant, int stage, int choice, Card previous, Card last) {
+        RuleVariant.Tie tie = variant.getTie(stage);
+        switch (variant.getStage(stage)) {
+            case COLOR:
+                return color(Card.Color.values()[choice]);
+            case HIGHER_LOWER:
+                return choice == 0 ? higher(last.getCardValue(), tie) : lower(last.getCardValue(), tie);
+            case INSIDE_OUTSIDE:
+                return choice == 0 ? inside(previous.getCardValue(), last.getCardValue(), tie)
+                    : outside(previous.getCardValue(), last.getCardValue(), tie);
+            default:
+                return suit(SUITS[choice]);
+        }
+    }
+
+    // Chance that the next card ties and the stage is guessed again, whatever the choice
+    public double push(RuleVariant variant, int stage, Card previous, Card last) {
+        if (variant.getTie(stage) != RuleVariant.Tie.PUSH) {
+            return 0;
+        }
+        if (variant.getStage(stage) == RuleVariant.Stage.HIGHER_LOWER) {
+            return probability(countBetween(last.getCardValue(), last.getCardValue()));
+        }
+        int min = Math.min(previous.getCardValue(), last.getCardValue());
+        return probability(boundaryCount(min, Math.max(previous.getCardValue(), last.getCardValue())));
+    }
+
+    // Expected payout per unit bet of pressing a button at the given stage and collecting right after,
+    // in the classic game; value() does the same for any stage of any variant.
+    public double colorValue(PayoutTable payouts, Card.Color color) {
+        return color(color) * payouts.multiplier(0);
+    }
+
+    public double higherLowerValue(PayoutTable payouts, boolean higher, int previousValue) {
+        return (higher ? higher(previousValue) : lower(previousValue)) * payouts.multiplier(1);
+    }
+
+    public double insideOutsideValue(PayoutTable payouts, boolean inside, int firstValue, int secondValue) {
+        return (inside ? inside(firstValue, secondValue) : outside(firstValue, secondValue)) * payouts.multiplier(2);
+    }
+
+    public double suitValue(PayoutTable payouts, Card.Suit suit) {
+        return suit(suit) * payouts.multiplier(3);
+    }
+
+    public double value(RuleVariant variant, int stage, int choice, Card previous, Card last) {
+        return win(variant, stage, choice, previous, last) * variant.getPayouts().multiplier(stage);
+    }
+
+    // "Collect Winnings" before the given stage (1-3) pays the previous stage in full
+    public static double collectValue(PayoutTable payouts, int stage) {
+        return payouts.multiplier(stage - 1);
+    }
+
+    private int countBetween(int fromValue, int toValue) {
+        int count = 0;
+        for (int value = Math.max(fromValue, Deck.MIN_VALUE); value <= Math.min(toValue, Deck.MAX_VALUE); value++) {
+            count += rankCounts[value - Deck.MIN_VALUE];
+        }
+        return count;
+    }
+
+    private int boundaryCount(int min, int max) {
+        return countBetween(min, min) + (max == min ? 0 : countBetween(max, max));
+    }
+
+    private double probability(int count) {
+        return remaining == 0 ? 0 : (double) count / remaining;
+    }
+}
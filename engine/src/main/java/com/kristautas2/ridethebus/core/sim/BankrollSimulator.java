@@ -0,0 +1,282 @@
+package com.kristautas2.ridethebus.core.sim;
+
+import com.kristautas2.ridethebus.core.logic.PayoutTable;
+import com.kristautas2.ridethebus.core.model.Card;
+import com.kristautas2.ridethebus.core.model.Deck;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Bankroll trajectories under a bet-sizing policy: every trajectory starts from the same balance and
+// plays rounds (dealt as in RoundSimulator) until it can no longer cover the table minimum (ruin),
+// reaches the goal, or runs out of rounds. Workers advance a block of trajectories round by round in
+// primitive arrays and only keep QuantileSketches of the balances at each checkpoint and of the ruin
+// rounds, which are merged at the end.
+public final class BankrollSimulator {
+    static final int TRAJECTORIES_PER_TASK = 1 << 10;
+    static final double SKETCH_ACCURACY = 0.01;
+
+    private final PayoutTable payouts;
+    private final RoundSimulator rounds;
+    private final ForkJoinPool pool;
+    private final long maxGoal; // above this a stake times the top multiplier could overflow a long
+    private long minBet = 1;
+    private long goal = Long.MAX_VALUE;
+    private int horizon = 1000;
+    private int checkpoints = 10;
+
+    public BankrollSimulator(PayoutTable payouts, Strategy strategy) {
+        this(payouts, strategy, ForkJoinPool.commonPool());
+    }
+
+    public BankrollSimulator(PayoutTable payouts, Strategy strategy, ForkJoinPool pool) {
+        this.payouts = payouts;
+        this.rounds = new RoundSimulator(payouts, strategy, pool);
+        this.pool = pool;
+        int maxUnits = 0;
+        for (int stage = 0; stage < PayoutTable.STAGES; stage++) {
+            maxUnits = Math.max(maxUnits, payouts.units(stage));
+        }
+        this.maxGoal = Long.MAX_VALUE / maxUnits;
+    }
+
+    // Table minimum; a trajectory is ruined once its balance drops below it
+    public BankrollSimulator setMinBet(long minBet) {
+        this.minBet = minBet;
+        return this;
+    }
+
+    // Trajectories stop once their balance reaches the goal
+    public BankrollSimulator setGoal(long goal) {
+        this.goal = goal;
+        return this;
+    }
+
+    // Rounds per trajectory
+    public BankrollSimulator setHorizon(int horizon) {
+        this.horizon = horizon;
+        return this;
+    }
+
+    // Evenly spaced rounds at which the balance distribution is sketched, the last one at the horizon
+    public BankrollSimulator setCheckpoints(int checkpoints) {
+        this.checkpoints = checkpoints;
+        return this;
+    }
+
+    // Same arguments and seed always give the same result, whatever the number of cores
+    public Result run(BetPolicy policy, long startingBalance, int trajectories, long seed) {
+        int[] checkpointRounds = new int[Math.min(checkpoints, horizon)];
+        for (int i = 0; i < checkpointRounds.length; i++) {
+            checkpointRounds[i] = (int) ((long) horizon * (i + 1) / checkpointRounds.length);
+        }
+        Run run = new Run(policy, startingBalance, Math.min(goal, maxGoal), checkpointRounds);
+        return pool.invoke(new TrajectoryTask(run, trajectories, seed));
+    }
+
+    public static final class Result {
+        final long startingBalance;
+        final int[] checkpointRounds;
+        final QuantileSketch[] balances;
+        final QuantileSketch ruinRounds = new QuantileSketch(SKETCH_ACCURACY);
+        long trajectories;
+        long ruined;
+        long reachedGoal;
+
+        Result(long startingBalance, int[] checkpointRounds) {
+            this.startingBalance = startingBalance;
+            this.checkpointRounds = checkpointRounds;
+            this.balances = new QuantileSketch[checkpointRounds.length];
+            for (int i = 0; i < balances.length; i++) {
+                balances[i] = new QuantileSketch(SKETCH_ACCURACY);
+            }
+        }
+
+        Result merge(Result other) {
+            for (int i = 0; i < balances.length; i++) {
+                balances[i].merge(other.balances[i]);
+            }
+            ruinRounds.merge(other.ruinRounds);
+            trajectories += other.trajectories;
+            ruined += other.ruined;
+            reachedGoal += other.reachedGoal;
+            return this;
+        }
+
+        public long getStartingBalance() {
+            return startingBalance;
+        }
+
+        public long getTrajectories() {
+            return trajectories;
+        }
+
+        // Share of trajectories ruined within the horizon
+        public double getRiskOfRuin() {
+            return trajectories == 0 ? 0 : (double) ruined / trajectories;
+        }
+
+        public double getGoalRate() {
+            return trajectories == 0 ? 0 : (double) reachedGoal / trajectories;
+        }
+
+        // Median round of ruin over all trajectories; infinite when at most half of them were ruined
+        public double getMedianTimeToRuin() {
+            if (ruined * 2 <= trajectories) return Double.POSITIVE_INFINITY;
+            return ruinRounds.quantile((trajectories / 2.0) / ruined);
+        }
+
+        // Round of ruin among the ruined trajectories only
+        public double getTimeToRuinQuantile(double q) {
+            return ruinRounds.quantile(q);
+        }
+
+        public int[] getCheckpointRounds() {
+            return checkpointRounds.clone();
+        }
+
+        // Balance quantile q across all trajectories after getCheckpointRounds()[checkpoint] rounds
+        public double getBalanceQuantile(int checkpoint, double q) {
+            return balances[checkpoint].quantile(q);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(String.format(
+                "start %d: ruin %.4f, median time to ruin %s, goal %.4f, n=%d%n  round      p5     p25     p50     p75     p95",
+                startingBalance, getRiskOfRuin(), format(getMedianTimeToRuin()), getGoalRate(), trajectories));
+            for (int i = 0; i < checkpointRounds.length; i++) {
+                sb.append(String.format("%n  %5d", checkpointRounds[i]));
+                for (double q : new double[]{0.05, 0.25, 0.5, 0.75, 0.95}) {
+                    sb.append(' ').append(String.format("%7s", format(getBalanceQuantile(i, q))));
+                }
+            }
+            return sb.toString();
+        }
+
+        private static String format(double value) {
+            if (Double.isInfinite(value)) return "never";
+            if (value >= 1e6) return String.format("%.2e", value);
+            return String.format("%.0f", value);
+        }
+    }
+
+    private final class Run {
+        final BetPolicy policy;
+        final long startingBalance;
+        final long goal;
+        final int[] checkpointRounds;
+
+        Run(BetPolicy policy, long startingBalance, long goal, int[] checkpointRounds) {
+            this.policy = policy;
+            this.startingBalance = startingBalance;
+            this.goal = goal;
+            this.checkpointRounds = checkpointRounds;
+        }
+
+        Result simulate(int trajectories, long seed) {
+            SplittableRandom random = new SplittableRandom(seed);
+            Deck deck = new Deck(random::nextInt);
+            Card[] dealt = new Card[PayoutTable.STAGES];
+            SimulationResult ignored = new SimulationResult();
+            Result result = new Result(startingBalance, checkpointRounds);
+            result.trajectories = trajectories;
+
+            long[] balance = new long[trajectories];
+            Arrays.fill(balance, startingBalance);
+            int live = startingBalance >= minBet && startingBalance < goal ? trajectories : 0;
+            int checkpoint = 0;
+            for (int round = 1; round <= horizon; round++) {
+                for (int i = 0; i < trajectories && live > 0; i++) {
+                    long b = balance[i];
+                    if (b < minBet || b >= goal) continue;
+                    long stake = Math.min(b, Math.max(minBet, policy.bet(b)));
+                    int units = rounds.playRound(deck, dealt, ignored);
+                    b += stake * units / PayoutTable.SCALE - stake;
+                    balance[i] = b;
+                    if (b < minBet) {
+                        result.ruined++;
+                        result.ruinRounds.add(round);
+                        live--;
+                    } else if (b >= goal) {
+                        result.reachedGoal++;
+                        live--;
+                    }
+                }
+                if (round == checkpointRounds[checkpoint]) {
+                    QuantileSketch sketch = result.balances[checkpoint];
+                    for (int i = 0; i < trajectories; i++) {
+                        sketch.add(balance[i]);
+                    }
+                    if (++checkpoint == checkpointRounds.length) break;
+                }
+            }
+            if (startingBalance < minBet) {
+                result.ruined = trajectories;
+            }
+            return result;
+        }
+    }
+
+    private static final class TrajectoryTask extends RecursiveTask<Result> {
+        private final Run run;
+        private final int trajectories;
+        private final long seed;
+
+        TrajectoryTask(Run run, int trajectories, long seed) {
+            this.run = run;
+            this.trajectories = trajectories;
+            this.seed = seed;
+        }
+
+        @Override
+        protected Result compute() {
+            if (trajectories <= TRAJECTORIES_PER_TASK) {
+                return run.simulate(trajectories, seed);
+            }
+            SplittableRandom seeds = new SplittableRandom(seed);
+            int half = trajectories / 2;
+            TrajectoryTask left = new TrajectoryTask(run, half, seeds.nextLong());
+            left.fork();
+            Result result = new TrajectoryTask(run, trajectories - half, seeds.nextLong()).compute();
+            return result.merge(left.join());
+        }
+    }
+
+    // Usage: BankrollSimulator [trajectories] [rounds] [seed] [collectStage]
+    // Risk of ruin and balance quantiles for flat, proportional and Kelly betting from several starting balances
+    public static void main(String[] args) {
+        int trajectories = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int horizon = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+        Strategy strategy = args.length > 3
+            ? Strategies.collectAt(Integer.parseInt(args[3]), Strategies.BASIC)
+            : Strategies.BASIC;
+        PayoutTable payouts = PayoutTable.DEFAULT;
+
+        SimulationResult exact = new ExhaustiveEvaluator(payouts, strategy).evaluate();
+        double[] paid = new double[PayoutTable.STAGES];
+        for (int stage = 0; stage < paid.length; stage++) {
+            paid[stage] = exact.getPaidRate(stage);
+        }
+        double kelly = BetPolicies.kellyFraction(payouts, paid);
+        System.out.printf("Strategy %s, payouts %s, rtp %.4f, Kelly fraction %.4f, seed %d%n",
+            strategy, payouts, exact.getReturnToPlayer(), kelly, seed);
+
+        BankrollSimulator simulator = new BankrollSimulator(payouts, strategy).setHorizon(horizon).setGoal(1_000_000);
+        BetPolicy[] policies = {
+            BetPolicies.flat(10), BetPolicies.proportional(0.1), BetPolicies.kelly(1, kelly), BetPolicies.kelly(0.5, kelly)
+        };
+        for (BetPolicy policy : policies) {
+            System.out.println("== " + policy);
+            for (long start : new long[]{10, 50, 100, 500}) {
+                long begin = System.nanoTime();
+                Result result = simulator.run(policy, start, trajectories, seed);
+                System.out.println(result);
+                System.out.printf("  (%.2f s)%n", (System.nanoTime() - begin) / 1e9);
+            }
+        }
+    }
+}
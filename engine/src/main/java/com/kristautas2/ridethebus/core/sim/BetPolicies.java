@@ -0,0 +1,81 @@
+package com.kristautas2.ridethebus.core.sim;
+
+import com.kristautas2.ridethebus.core.logic.PayoutTable;
+
+public final class BetPolicies {
+    private BetPolicies() {
+    }
+
+    // The same stake every round
+    public static BetPolicy flat(final long stake) {
+        return new BetPolicy() {
+            @Override
+            public long bet(long balance) {
+                return stake;
+            }
+
+            @Override
+            public String toString() {
+                return "flat-" + stake;
+            }
+        };
+    }
+
+    // A fixed share of the current balance, rounded down
+    public static BetPolicy proportional(final double fraction) {
+        return new BetPolicy() {
+            @Override
+            public long bet(long balance) {
+                return (long) (balance * fraction);
+            }
+
+            @Override
+            public String toString() {
+                return "proportional-" + fraction;
+            }
+        };
+    }
+
+    // multiplier times the Kelly stake, e.g. 0.5 for half Kelly; see kellyFraction
+    public static BetPolicy kelly(final double multiplier, final double kellyFraction) {
+        return new BetPolicy() {
+            @Override
+            public long bet(long balance) {
+                return (long) (balance * kellyFraction * multiplier);
+            }
+
+            @Override
+            public String toString() {
+                return multiplier == 1 ? "kelly" : "kelly-x" + multiplier;
+            }
+        };
+    }
+
+    // Share of the balance maximising the expected log balance, for a round that loses the stake or
+    // pays stake * multiplier(stage) with the given probabilities (e.g. SimulationResult.getPaidRate).
+    // 0 when the round has no edge.
+    public static double kellyFraction(PayoutTable payouts, double[] paidProbability) {
+        double lose = 1;
+        for (double p : paidProbability) {
+            lose -= p;
+        }
+        // d/df E[log(1 + f r)] = sum p r / (1 + f r) falls from E[r] at f = 0 towards -infinity at f = 1
+        double low = 0;
+        double high = 1;
+        if (slope(payouts, paidProbability, lose, 0) <= 0) return 0;
+        for (int i = 0; i < 100; i++) {
+            double mid = (low + high) / 2;
+            if (slope(payouts, paidProbability, lose, mid) > 0) low = mid; else high = mid;
+        }
+        return low;
+    }
+
+    private static double slope(PayoutTable payouts, double[] paid, double lose, double f) {
+        double slope = -lose / (1 - f);
+        for (int stage = 0; stage < paid.length; stage++) {
+            double r = payouts.multiplier(stage) - 1;
+            slope += paid[stage] * r / (1 + f * r);
+        }
+        return slope;
+    }
+}
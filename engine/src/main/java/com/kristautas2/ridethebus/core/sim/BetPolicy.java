@@ -0,0 +1,7 @@
+package com.kristautas2.ridethebus.core.sim;
+
+// Stake for the next round given the current balance. The bankroll simulator then raises it to the
+// table minimum and caps it at the balance. Shared by all workers, so implementations must be stateless.
+public interface BetPolicy {
+    long bet(long balance);
+}
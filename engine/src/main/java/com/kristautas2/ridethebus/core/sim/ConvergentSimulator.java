@@ -0,0 +1,126 @@
+package com.kristautas2.ridethebus.core.sim;
+
+import com.kristautas2.ridethebus.core.logic.PayoutTable;
+import com.kristautas2.ridethebus.core.model.Card;
+import com.kristautas2.ridethebus.core.model.Deck;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Simulates in parallel chunks until the confidence interval of the mean payout is narrow enough.
+// compare() plays both strategies on the same cards (common random numbers) and tracks the
+// per-round difference, whose variance is far smaller than that of either strategy alone.
+public final class ConvergentSimulator {
+    public static final double Z_95 = 1.959963984540054;
+    public static final double Z_99 = 2.5758293035489004;
+    static final long ROUNDS_PER_TASK = 1 << 16;
+
+    private final PayoutTable payouts;
+    private final ForkJoinPool pool;
+    private long chunkRounds = 1 << 22;
+    private long maxRounds = Long.MAX_VALUE;
+
+    public ConvergentSimulator(PayoutTable payouts) {
+        this(payouts, ForkJoinPool.commonPool());
+    }
+
+    public ConvergentSimulator(PayoutTable payouts, ForkJoinPool pool) {
+        this.payouts = payouts.requireStages(PayoutTable.STAGES);
+        this.pool = pool;
+    }
+
+    // Rounds simulated between two convergence checks
+    public ConvergentSimulator setChunkRounds(long chunkRounds) {
+        this.chunkRounds = chunkRounds;
+        return this;
+    }
+
+    // Hard cap; the result may then be wider than requested
+    public ConvergentSimulator setMaxRounds(long maxRounds) {
+        this.maxRounds = maxRounds;
+        return this;
+    }
+
+    // Mean payout of one strategy, to within +/- halfWidth at the given z
+    public RunningStats estimate(Strategy strategy, double halfWidth, double z, long seed) {
+        return run(strategy, null, halfWidth, z, seed);
+    }
+
+    // Mean of payout(a) - payout(b) on identical cards, to within +/- halfWidth at the given z
+    public RunningStats compare(Strategy a, Strategy b, double halfWidth, double z, long seed) {
+        return run(a, b, halfWidth, z, seed);
+    }
+
+    private RunningStats run(Strategy a, Strategy b, double halfWidth, double z, long seed) {
+        RoundSimulator first = new RoundSimulator(payouts, a, pool);
+        RoundSimulator second = b == null ? null : new RoundSimulator(payouts, b, pool);
+        SplittableRandom seeds = new SplittableRandom(seed);
+        RunningStats stats = new RunningStats();
+        while (stats.getCount() < maxRounds) {
+            long rounds = Math.min(chunkRounds, maxRounds - stats.getCount());
+            stats.merge(pool.invoke(new ChunkTask(first, second, rounds, seeds.nextLong())));
+            if (stats.getCount() > 1 && stats.getHalfWidth(z) <= halfWidth) {
+                break;
+            }
+        }
+        return stats;
+    }
+
+    private static final class ChunkTask extends RecursiveTask<RunningStats> {
+        private final RoundSimulator first;
+        private final RoundSimulator second;
+        private final long rounds;
+        private final long seed;
+
+        ChunkTask(RoundSimulator first, RoundSimulator second, long rounds, long seed) {
+            this.first = first;
+            this.second = second;
+            this.rounds = rounds;
+            this.seed = seed;
+        }
+
+        @Override
+        protected RunningStats compute() {
+            if (rounds > ROUNDS_PER_TASK) {
+                SplittableRandom seeds = new SplittableRandom(seed);
+                long half = rounds / 2;
+                ChunkTask left = new ChunkTask(first, second, half, seeds.nextLong());
+                left.fork();
+                RunningStats stats = new ChunkTask(first, second, rounds - half, seeds.nextLong()).compute();
+                return stats.merge(left.join());
+            }
+            SplittableRandom random = new SplittableRandom(seed);
+            Deck deck = new Deck(random::nextInt);
+            Card[] dealt = new Card[PayoutTable.STAGES];
+            SimulationResult ignored = new SimulationResult();
+            RunningStats stats = new RunningStats();
+            for (long i = 0; i < rounds; i++) {
+                deck.shuffleFirst(PayoutTable.STAGES);
+                Card c0 = deck.drawCard(), c1 = deck.drawCard(), c2 = deck.drawCard(), c3 = deck.drawCard();
+                int payout = first.playRound(c0, c1, c2, c3, dealt, ignored);
+                if (second != null) {
+                    payout -= second.playRound(c0, c1, c2, c3, dealt, ignored);
+                }
+                stats.add((double) payout / PayoutTable.SCALE);
+            }
+            return stats;
+        }
+    }
+
+    // Usage: ConvergentSimulator [halfWidth] [seed] [collectStage]
+    // Compares BASIC against BASIC collecting before collectStage on common cards
+    public static void main(String[] args) {
+        double halfWidth = args.length > 0 ? Double.parseDouble(args[0]) : 0.01;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+        int collectStage = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        Strategy a = Strategies.BASIC;
+        Strategy b = Strategies.collectAt(collectStage, Strategies.BASIC);
+        ConvergentSimulator simulator = new ConvergentSimulator(PayoutTable.DEFAULT);
+
+        long start = System.nanoTime();
+        RunningStats difference = simulator.compare(a, b, halfWidth, Z_95, seed);
+        System.out.printf("%s - %s: %s, 95%% CI +/- %.6f (%.2f s)%n", a, b, difference,
+            difference.getHalfWidth(Z_95), (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,101 @@
+package com.kristautas2.ridethebus.core.sim;
+
+import com.kristautas2.ridethebus.core.logic.PayoutTable;
+import com.kristautas2.ridethebus.core.model.Card;
+import com.kristautas2.ridethebus.core.solver.PolicyTable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Plays every ordered 4-card sequence of a single deck exactly once, so the result is the exact
+// return to player of a strategy, with no sampling noise
+public final class ExhaustiveEvaluator {
+    public static final long SEQUENCES = (long) Card.COUNT * (Card.COUNT - 1) * (Card.COUNT - 2) * (Card.COUNT - 3);
+
+    private final RoundSimulator simulator;
+    private final ForkJoinPool pool;
+
+    public ExhaustiveEvaluator(PayoutTable payouts, Strategy strategy) {
+        this(payouts, strategy, ForkJoinPool.commonPool());
+    }
+
+    public ExhaustiveEvaluator(PayoutTable payouts, Strategy strategy, ForkJoinPool pool) {
+        this.simulator = new RoundSimulator(payouts, strategy, pool);
+        this.pool = pool;
+    }
+
+    public SimulationResult evaluate() {
+        return pool.invoke(new FirstCardTask(0, Card.COUNT));
+    }
+
+    // Splits on the first card; each leaf walks the 51 * 50 * 49 sequences that follow it
+    private final class FirstCardTask extends RecursiveTask<SimulationResult> {
+        private final int from;
+        private final int to;
+
+        FirstCardTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected SimulationResult compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                FirstCardTask left = new FirstCardTask(from, mid);
+                left.fork();
+                SimulationResult result = new FirstCardTask(mid, to).compute();
+                return result.merge(left.join());
+            }
+            SimulationResult result = new SimulationResult();
+            Card[] dealt = new Card[PayoutTable.STAGES];
+            Card first = Card.byId(from);
+            for (int b = 0; b < Card.COUNT; b++) {
+                if (b == from) continue;
+                Card second = Card.byId(b);
+                for (int c = 0; c < Card.COUNT; c++) {
+                    if (c == from || c == b) continue;
+                    Card third = Card.byId(c);
+                    for (int d = 0; d < Card.COUNT; d++) {
+                        if (d == from || d == b || d == c) continue;
+                        result.recordRound(simulator.playRound(first, second, third, Card.byId(d), dealt, result));
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
+    // Usage: ExhaustiveEvaluator [basic|always-red|optimal] [payouts, e.g. 2,4,8,32]
+    public static void main(String[] args) throws IOException {
+        String name = args.length > 0 ? args[0] : "basic";
+        PayoutTable payouts = args.length > 1 ? PayoutTable.parse(args[1]) : PayoutTable.DEFAULT;
+        Strategy strategy;
+        switch (name) {
+            case "always-red": strategy = Strategies.ALWAYS_RED; break;
+            case "optimal":
+                Path file = PolicyTable.defaultFile(Paths.get("build/policy"), payouts);
+                strategy = PolicyTable.load(file, payouts);
+                break;
+            default: strategy = Strategies.BASIC;
+        }
+
+        long start = System.nanoTime();
+        SimulationResult result = new ExhaustiveEvaluator(payouts, strategy).evaluate();
+        long elapsed = System.nanoTime() - start;
+        long total = result.getTotalReturn();
+        long denominator = SEQUENCES * PayoutTable.SCALE;
+        long gcd = gcd(total, denominator);
+        System.out.println("Strategy " + strategy + ", payouts " + payouts + ", " + SEQUENCES + " sequences");
+        System.out.println("Exact return to player: " + total / gcd + "/" + denominator / gcd);
+        System.out.println(result);
+        System.out.printf("%.2f s%n", elapsed / 1e9);
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+}
@@ -0,0 +1,74 @@
+package com.kristautas2.ridethebus.core.sim;
+
+// Streaming quantiles of non-negative integers with relative accuracy: values share a bucket when they
+// are within a factor gamma = (1 + accuracy) / (1 - accuracy) of each other (as in DDSketch), so every
+// quantile is within +/- accuracy of a real sample. Sketches with the same accuracy merge exactly by
+// adding bucket counts, so each worker keeps its own and nothing per sample is stored.
+public final class QuantileSketch {
+    private final double accuracy;
+    private final double logGamma;
+    private final long[] counts; // counts[i] = values in (gamma^(i-1), gamma^i]
+    private long zeros;
+    private long count;
+
+    public QuantileSketch(double accuracy) {
+        if (!(accuracy > 0 && accuracy < 1)) {
+            throw new IllegalArgumentException("Accuracy must be in (0, 1), got " + accuracy);
+        }
+        this.accuracy = accuracy;
+        this.logGamma = Math.log((1 + accuracy) / (1 - accuracy));
+        this.counts = new long[bucket(Long.MAX_VALUE) + 1];
+    }
+
+    private int bucket(long value) {
+        return (int) Math.ceil(Math.log(value) / logGamma);
+    }
+
+    public void add(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value " + value);
+        }
+        if (value == 0) {
+            zeros++;
+        } else {
+            counts[bucket(value)]++;
+        }
+        count++;
+    }
+
+    public QuantileSketch merge(QuantileSketch other) {
+        if (other.accuracy != accuracy) {
+            throw new IllegalArgumentException("Cannot merge sketches of different accuracy");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        zeros += other.zeros;
+        count += other.count;
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    // Value at quantile q (0 = minimum, 0.5 = median, 1 = maximum), NaN when empty
+    public double quantile(double q) {
+        if (count == 0) return Double.NaN;
+        long rank = (long) (Math.max(0, Math.min(1, q)) * (count - 1));
+        if (rank < zeros) return 0;
+        long seen = zeros;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                // the point of the bucket with the smallest relative error to both ends
+                return 2 * Math.exp(i * logGamma) / (1 + Math.exp(logGamma));
+            }
+        }
+        return Double.NaN;
+    }
+
+    public double getAccuracy() {
+        return accuracy;
+    }
+}
@@ -0,0 +1,125 @@
+package com.kristautas2.ridethebus.core.sim;
+
+import com.kristautas2.ridethebus.core.logic.PayoutTable;
+import com.kristautas2.ridethebus.core.logic.Rules;
+import com.kristautas2.ridethebus.core.model.Card;
+import com.kristautas2.ridethebus.core.model.Deck;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Headless Monte Carlo of the GameManager stage sequence, spread over a fork/join pool
+public final class RoundSimulator {
+    static final long ROUNDS_PER_TASK = 1 << 20;
+
+    private final PayoutTable payouts;
+    private final Strategy strategy;
+    private final ForkJoinPool pool;
+
+    public RoundSimulator(PayoutTable payouts, Strategy strategy) {
+        this(payouts, strategy, ForkJoinPool.commonPool());
+    }
+
+    public RoundSimulator(PayoutTable payouts, Strategy strategy, ForkJoinPool pool) {
+        this.payouts = payouts.requireStages(PayoutTable.STAGES);
+        this.strategy = strategy;
+        this.pool = pool;
+    }
+
+    // Same rounds and seed always give the same result, whatever the number of cores
+    public SimulationResult run(long rounds, long seed) {
+        return pool.invoke(new SimulationTask(rounds, seed));
+    }
+
+    // Plays one round from a reshuffled deck and returns its payout multiplier in PayoutTable units, 0 when lost
+    int playRound(Deck deck, Card[] dealt, SimulationResult result) {
+        deck.shuffleFirst(PayoutTable.STAGES);
+        return playRound(deck.drawCard(), deck.drawCard(), deck.drawCard(), deck.drawCard(), dealt, result);
+    }
+
+    // Plays one round on a known card sequence; cards after a loss or a collect are ignored
+    int playRound(Card first, Card second, Card third, Card fourth, Card[] dealt, SimulationResult result) {
+        dealt[0] = first;
+        if (!guess(0, Rules.colorWins(strategy.guessColor(), first), result)) return 0;
+        if (strategy.collect(1, dealt)) return collect(1, result);
+
+        dealt[1] = second;
+        boolean higher = strategy.guessHigher(first);
+        if (!guess(1, Rules.higherLowerWins(higher, first.getCardValue(), second.getCardValue()), result)) return 0;
+        if (strategy.collect(2, dealt)) return collect(2, result);
+
+        dealt[2] = third;
+        boolean inside = strategy.guessInside(first, second);
+        if (!guess(2, Rules.insideOutsideWins(inside, first.getCardValue(), second.getCardValue(), third.getCardValue()), result)) return 0;
+        if (strategy.collect(3, dealt)) return collect(3, result);
+
+        dealt[3] = fourth;
+        if (!guess(3, Rules.suitWins(strategy.guessSuit(first, second, third), fourth), result)) return 0;
+        result.recordPaid(3);
+        return payouts.units(3);
+    }
+
+    private static boolean guess(int stage, boolean correct, SimulationResult result) {
+        result.recordGuess(stage, correct);
+        return correct;
+    }
+
+    private int collect(int stage, SimulationResult result) {
+        result.recordCollect(stage);
+        result.recordPaid(stage - 1);
+        return payouts.units(stage - 1);
+    }
+
+    private final class SimulationTask extends RecursiveTask<SimulationResult> {
+        private final long rounds;
+        private final long seed;
+
+        SimulationTask(long rounds, long seed) {
+            this.rounds = rounds;
+            this.seed = seed;
+        }
+
+        @Override
+        protected SimulationResult compute() {
+            if (rounds <= ROUNDS_PER_TASK) {
+                return simulate();
+            }
+            // Child seeds depend only on the parent seed, so the split tree is reproducible
+            SplittableRandom seeds = new SplittableRandom(seed);
+            long half = rounds / 2;
+            SimulationTask left = new SimulationTask(half, seeds.nextLong());
+            SimulationTask right = new SimulationTask(rounds - half, seeds.nextLong());
+            left.fork();
+            SimulationResult result = right.compute();
+            return result.merge(left.join());
+        }
+
+        private SimulationResult simulate() {
+            SplittableRandom random = new SplittableRandom(seed);
+            Deck deck = new Deck(random::nextInt);
+            Card[] dealt = new Card[PayoutTable.STAGES];
+            SimulationResult result = new SimulationResult();
+            for (long i = 0; i < rounds; i++) {
+                result.recordRound(playRound(deck, dealt, result));
+            }
+            return result;
+        }
+    }
+
+    // Usage: RoundSimulator [rounds] [seed] [collectStage]
+    public static void main(String[] args) {
+        long rounds = args.length > 0 ? Long.parseLong(args[0]) : 100_000_000L;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+        Strategy strategy = args.length > 2
+            ? Strategies.collectAt(Integer.parseInt(args[2]), Strategies.BASIC)
+            : Strategies.BASIC;
+
+        long start = System.nanoTime();
+        SimulationResult result = new RoundSimulator(PayoutTable.DEFAULT, strategy).run(rounds, seed);
+        long elapsed = System.nanoTime() - start;
+        System.out.println("Strategy " + strategy + ", payouts " + PayoutTable.DEFAULT + ", seed " + seed);
+        System.out.println(result);
+        System.out.printf("%.1f M rounds/s%n", rounds / (elapsed / 1e9) / 1e6);
+    }
+}
@@ -0,0 +1,70 @@
+package com.kristautas2.ridethebus.core.sim;
+
+// Streaming mean and variance (Welford), mergeable across workers (Chan et al.)
+public final class RunningStats {
+    private long count;
+    private double mean;
+    private double m2; // sum of squared deviations from the mean
+
+    public RunningStats() {
+    }
+
+    // Restores stats saved as count, mean and sample variance
+    static RunningStats of(long count, double mean, double variance) {
+        RunningStats stats = new RunningStats();
+        stats.count = count;
+        stats.mean = mean;
+        stats.m2 = count < 2 ? 0 : variance * (count - 1);
+        return stats;
+    }
+
+    public void add(double x) {
+        count++;
+        double delta = x - mean;
+        mean += delta / count;
+        m2 += delta * (x - mean);
+    }
+
+    public RunningStats merge(RunningStats other) {
+        if (other.count == 0) return this;
+        if (count == 0) {
+            count = other.count;
+            mean = other.mean;
+            m2 = other.m2;
+            return this;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+        count = total;
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    // Sample variance
+    public double getVariance() {
+        return count < 2 ? 0 : m2 / (count - 1);
+    }
+
+    public double getStandardError() {
+        return count < 2 ? Double.POSITIVE_INFINITY : Math.sqrt(getVariance() / count);
+    }
+
+    // Half-width of the normal confidence interval around the mean for the given z (1.96 for 95%)
+    public double getHalfWidth(double z) {
+        return z * getStandardError();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d mean=%.6f variance=%.4f stderr=%.6f", count, mean, getVariance(), getStandardError());
+    }
+}
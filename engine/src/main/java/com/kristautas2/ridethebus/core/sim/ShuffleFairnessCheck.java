@@ -0,0 +1,349 @@
+package com.kristautas2.ridethebus.core.sim;
+
+import com.kristautas2.ridethebus.core.logic.GameSnapshot;
+import com.kristautas2.ridethebus.core.logic.PayoutTable;
+import com.kristautas2.ridethebus.core.logic.RuleVariant;
+import com.kristautas2.ridethebus.core.model.Card;
+import com.kristautas2.ridethebus.core.model.Deck;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Statistical checks every shuffle or RNG change has to pass, run by the engine's fairnessCheck task:
+//  - chi-square of the position-by-card frequency matrix, for Deck.shuffle() and Deck.shuffle(seed), and over
+//    the positions it shuffles for Deck.shuffleFirst as the simulators deal from it
+//  - serial correlation of the first card between consecutive shuffles
+//  - per-stage win rates of strategies played through GameSnapshot on the classic rules and every bundled
+//    variant, against exact rates enumerated from each variant's shoe
+// Counters are plain long arrays per fork/join leaf, merged once at the end.
+public final class ShuffleFairnessCheck {
+    // Far enough in the tail that a correct shuffle fails about once in millions of builds
+    static final double MAX_Z = 5.0;
+    static final long SHUFFLES_PER_TASK = 1 << 18;
+
+    private final ForkJoinPool pool;
+    private int failures;
+
+    public ShuffleFairnessCheck(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // Frequencies and serial statistics of one batch of shuffles
+    private static final class Counts {
+        final long[] positionCard = new long[Card.COUNT * Card.COUNT];
+        long shuffles;
+        // first card of consecutive shuffles: sums for the lag-1 correlation
+        long sumX, sumXX, sumXY;
+        int firstX = -1, lastX = -1;
+
+        Counts merge(Counts other) {
+            for (int i = 0; i < positionCard.length; i++) {
+                positionCard[i] += other.positionCard[i];
+            }
+            shuffles += other.shuffles;
+            sumX += other.sumX;
+            sumXX += other.sumXX;
+            sumXY += other.sumXY;
+            // stitch the pair that crosses the two batches
+            if (lastX >= 0 && other.firstX >= 0) {
+                sumXY += (long) lastX * other.firstX;
+            }
+            if (firstX < 0) firstX = other.firstX;
+            if (other.lastX >= 0) lastX = other.lastX;
+            return this;
+        }
+    }
+
+    private static final class ShuffleTask extends RecursiveTask<Counts> {
+        private final long shuffles;
+        private final long seed;
+        private final boolean seeded;
+        private final int cards; // positions dealt; fewer than Card.COUNT shuffles only those (shuffleFirst)
+
+        ShuffleTask(long shuffles, long seed, boolean seeded, int cards) {
+            this.shuffles = shuffles;
+            this.seed = seed;
+            this.seeded = seeded;
+            this.cards = cards;
+        }
+
+        @Override
+        protected Counts compute() {
+            if (shuffles > SHUFFLES_PER_TASK) {
+                SplittableRandom seeds = new SplittableRandom(seed);
+                long half = shuffles / 2;
+                ShuffleTask left = new ShuffleTask(half, seeds.nextLong(), seeded, cards);
+                left.fork();
+                Counts right = new ShuffleTask(shuffles - half, seeds.nextLong(), seeded, cards).compute();
+                return left.join().merge(right);
+            }
+            SplittableRandom random = new SplittableRandom(seed);
+            Deck deck = new Deck(random::nextInt);
+            Counts counts = new Counts();
+            long[] matrix = counts.positionCard;
+            int previous = -1;
+            for (long n = 0; n < shuffles; n++) {
+                if (seeded) {
+                    deck.shuffle(random.nextLong()); // what GameManager does each round
+                } else if (cards < Card.COUNT) {
+                    deck.shuffleFirst(cards); // what the simulators do each round
+                } else {
+                    deck.shuffle();
+                }
+                for (int position = 0; position < cards; position++) {
+                    int id = deck.drawCard().getId();
+                    matrix[position * Card.COUNT + id]++;
+                    if (position == 0) {
+                        counts.sumX += id;
+                        counts.sumXX += (long) id * id;
+                        if (previous >= 0) {
+                            counts.sumXY += (long) previous * id;
+                        } else {
+                            counts.firstX = id;
+                        }
+                        previous = id;
+                    }
+                }
+            }
+            counts.lastX = previous;
+            counts.shuffles = shuffles;
+            return counts;
+        }
+    }
+
+    public void checkShuffle(String name, long shuffles, long seed, boolean seeded) {
+        checkShuffle(name, shuffles, seed, seeded, Card.COUNT);
+    }
+
+    // Only the first cards positions are dealt and counted
+    public void checkShuffle(String name, long shuffles, long seed, boolean seeded, int cards) {
+        Counts counts = pool.invoke(new ShuffleTask(shuffles, seed, seeded, cards));
+
+        // Every cell expects shuffles / 52 and each row sums to shuffles. With the whole deck dealt each column
+        // does too, so df = 51 * 51; with fewer positions the columns are free, so df = cards * 51.
+        double expected = (double) counts.shuffles / Card.COUNT;
+        double chiSquare = 0;
+        for (int cell = 0; cell < cards * Card.COUNT; cell++) {
+            double d = counts.positionCard[cell] - expected;
+            chiSquare += d * d / expected;
+        }
+        int df = cards == Card.COUNT ? (Card.COUNT - 1) * (Card.COUNT - 1) : cards * (Card.COUNT - 1);
+        report(name + " position-by-card chi-square " + String.format("%.1f (df %d)", chiSquare, df), chiSquareZ(chiSquare, df));
+
+        // Lag-1 correlation of the first card id; n * r^2 is about chi-square(1), so r * sqrt(n) ~ N(0, 1)
+        double n = counts.shuffles;
+        double mean = counts.sumX / n;
+        double variance = counts.sumXX / n - mean * mean;
+        double covariance = counts.sumXY / (n - 1) - mean * mean;
+        double r = covariance / variance;
+        report(name + " serial correlation " + String.format("%.6f", r), r * Math.sqrt(n));
+    }
+
+    // Per-stage rates of a strategy played through GameSnapshot, the transitions GameManager and the server
+    // follow, against exact rates enumerated from the variant's shoe. A push keeps its card out of the shoe,
+    // so the rest of the round depends on every card pushed before it; only the part of each round before
+    // its first push is compared: the chance that a stage is won, or pushes, while nothing has pushed yet.
+    // On the classic rules the exact rates are also checked against ExhaustiveEvaluator, which resolves
+    // guesses through Rules instead of the compiled tables.
+    public void checkStageOdds(RuleVariant variant, Strategy strategy, long rounds, long seed) {
+        int stages = variant.stages();
+        double[] exact = exactStageOutcomes(variant, strategy);
+        long[] simulated = pool.invoke(new StageTask(variant, strategy, rounds, seed));
+        long played = simulated[2 * stages];
+        for (int stage = 0; stage < stages; stage++) {
+            String name = variant.getName() + " " + strategy + " stage " + (stage + 1);
+            reportRate(name + " win", simulated[stage], played, exact[stage]);
+            if (variant.getTie(stage) == RuleVariant.Tie.PUSH) {
+                reportRate(name + " push", simulated[stages + stage], played, exact[stages + stage]);
+            }
+        }
+        if (isClassic(variant)) {
+            SimulationResult rules = new ExhaustiveEvaluator(variant.getPayouts(), strategy, pool).evaluate();
+            double reached = 1;
+            for (int stage = 0; stage < PayoutTable.STAGES; stage++) {
+                double p = reached * rules.getHitRate(stage);
+                // both sides are exact; anything beyond rounding means the compiled table and Rules disagree
+                report(String.format("%s %s stage %d table %.9f vs Rules %.9f", variant.getName(), strategy, stage + 1,
+                    exact[stage], p), Math.abs(exact[stage] - p) < 1e-9 ? 0 : Double.POSITIVE_INFINITY);
+                reached = p;
+            }
+        }
+    }
+
+    private void reportRate(String check, long hits, long rounds, double p) {
+        double z = (hits - rounds * p) / Math.sqrt(rounds * p * (1 - p));
+        report(String.format("%s rate %.6f vs exact %.6f", check, (double) hits / rounds, p), z);
+    }
+
+    // The game ExhaustiveEvaluator plays: the classic stages and ties on one full deck, any payouts
+    private static boolean isClassic(RuleVariant variant) {
+        RuleVariant classic = RuleVariant.CLASSIC;
+        if (variant.getDecks() != 1 || variant.getMinValue() != classic.getMinValue()
+            || variant.getMaxValue() != classic.getMaxValue() || variant.stages() != classic.stages()) {
+            return false;
+        }
+        for (int stage = 0; stage < classic.stages(); stage++) {
+            if (variant.getStage(stage) != classic.getStage(stage) || variant.getTie(stage) != classic.getTie(stage)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Chance per round that each stage is won (first half) or pushes (second half) before anything in the
+    // round pushed, walking every card the shoe can deal at every guess
+    static double[] exactStageOutcomes(RuleVariant variant, Strategy strategy) {
+        int[] counts = new int[Card.COUNT];
+        for (Card card : variant.getCards()) {
+            counts[card.getId()]++;
+        }
+        double[] outcomes = new double[2 * variant.stages()];
+        exactStageOutcomes(variant, strategy, counts, variant.getCards().size(), new Card[variant.stages()], 0, 1,
+            outcomes);
+        return outcomes;
+    }
+
+    private static void exactStageOutcomes(RuleVariant variant, Strategy strategy, int[] counts, int left,
+                                           Card[] dealt, int stage, double chance, double[] outcomes) {
+        Card previous = stage > 1 ? dealt[stage - 2] : null;
+        Card last = stage > 0 ? dealt[stage - 1] : null;
+        int choice = choice(variant.getStage(stage), strategy, previous, last, Arrays.asList(dealt).subList(0, stage));
+        for (int id = 0; id < Card.COUNT; id++) {
+            if (counts[id] == 0) continue;
+            Card card = Card.byId(id);
+            double p = chance * counts[id] / left;
+            byte outcome = variant.outcome(stage, choice, previous, last, card);
+            if (outcome == RuleVariant.PUSH) {
+                outcomes[variant.stages() + stage] += p;
+            } else if (outcome == RuleVariant.WIN) {
+                outcomes[stage] += p;
+                if (stage + 1 < variant.stages()) {
+                    counts[id]--;
+                    dealt[stage] = card;
+                    exactStageOutcomes(variant, strategy, counts, left - 1, dealt, stage + 1, p, outcomes);
+                    counts[id]++;
+                }
+            }
+        }
+    }
+
+    // The strategy's guess as a RuleVariant choice; dealt holds the cards of the round so far
+    static int choice(RuleVariant.Stage stage, Strategy strategy, Card previous, Card last, List<Card> dealt) {
+        int n = dealt.size();
+        switch (stage) {
+            case COLOR:
+                return strategy.guessColor().ordinal();
+            case HIGHER_LOWER:
+                return strategy.guessHigher(last) ? 0 : 1;
+            case INSIDE_OUTSIDE:
+                return strategy.guessInside(previous, last) ? 0 : 1;
+            default:
+                return strategy.guessSuit(n > 2 ? dealt.get(n - 3) : null, n > 1 ? dealt.get(n - 2) : null,
+                    n > 0 ? dealt.get(n - 1) : null).ordinal();
+        }
+    }
+
+    // Plays unit bets through GameSnapshot, every round on a fresh shuffle so rounds are independent. Counts
+    // the wins, then the pushes, of each stage up to the round's first push, with the rounds in the last slot.
+    private static final class StageTask extends RecursiveTask<long[]> {
+        private final RuleVariant variant;
+        private final Strategy strategy;
+        private final long rounds;
+        private final long seed;
+
+        StageTask(RuleVariant variant, Strategy strategy, long rounds, long seed) {
+            this.variant = variant;
+            this.strategy = strategy;
+            this.rounds = rounds;
+            this.seed = seed;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (rounds > SHUFFLES_PER_TASK) {
+                SplittableRandom seeds = new SplittableRandom(seed);
+                long half = rounds / 2;
+                StageTask left = new StageTask(variant, strategy, half, seeds.nextLong());
+                left.fork();
+                long[] right = new StageTask(variant, strategy, rounds - half, seeds.nextLong()).compute();
+                long[] merged = left.join();
+                for (int i = 0; i < merged.length; i++) {
+                    merged[i] += right[i];
+                }
+                return merged;
+            }
+            SplittableRandom random = new SplittableRandom(seed);
+            int stages = variant.stages();
+            long[] counts = new long[2 * stages + 1];
+            GameSnapshot game = GameSnapshot.newGame(variant, random.nextLong());
+            for (long n = 0; n < rounds; n++) {
+                game = game.shuffled(random.nextLong()).placeBet(1);
+                boolean pushed = false;
+                while (game.isGuessing()) {
+                    int stage = game.getStage();
+                    game = game.guess(choice(variant.getStage(stage), strategy, game.getPreviousStageCard(),
+                        game.getLastStageCard(), game.getDealtCards()));
+                    if (pushed) continue;
+                    if (game.getStage() > stage) {
+                        counts[stage]++;
+                    } else if (game.isGuessing()) {
+                        counts[stages + stage]++;
+                        pushed = true;
+                    }
+                }
+            }
+            counts[2 * stages] = rounds;
+            return counts;
+        }
+    }
+
+    private void report(String check, double z) {
+        boolean ok = Math.abs(z) <= MAX_Z;
+        if (!ok) failures++;
+        System.out.printf("%s %s, z = %.2f%n", ok ? "PASS" : "FAIL", check, z);
+    }
+
+    // Wilson-Hilferty: (X / df)^(1/3) is close to normal for chi-square X; only the upper tail fails
+    static double chiSquareZ(double chiSquare, int df) {
+        double v = 2.0 / (9.0 * df);
+        double z = (Math.cbrt(chiSquare / df) - (1 - v)) / Math.sqrt(v);
+        return Math.max(z, 0);
+    }
+
+    public int getFailures() {
+        return failures;
+    }
+
+    // Usage: ShuffleFairnessCheck [shuffles] [seed] [variant directory]; exits with 1 when any check fails.
+    // Without a seed every run samples new shuffles; the build passes a fixed one so it gives the same answer
+    // every time.
+    public static void main(String[] args) throws IOException {
+        long shuffles = args.length > 0 ? Long.parseLong(args[0]) : 100_000_000L;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+        List<RuleVariant> variants = new ArrayList<>();
+        variants.add(RuleVariant.CLASSIC);
+        variants.addAll(RuleVariant.loadAll(Paths.get(args.length > 2 ? args[2] : "assets/gameData/variants")));
+        System.out.println("Shuffle fairness check: " + shuffles + " shuffles, seed " + seed);
+
+        long start = System.nanoTime();
+        ShuffleFairnessCheck check = new ShuffleFairnessCheck(ForkJoinPool.commonPool());
+        check.checkShuffle("shuffle()", shuffles, seed, false);
+        check.checkShuffle("shuffle(seed)", shuffles, seed + 1, true);
+        check.checkShuffle("shuffleFirst(" + PayoutTable.STAGES + ")", shuffles, seed + 2, false, PayoutTable.STAGES);
+        long stageSeed = seed + 3;
+        for (RuleVariant variant : variants) {
+            check.checkStageOdds(variant, Strategies.BASIC, shuffles, stageSeed++);
+            check.checkStageOdds(variant, Strategies.ALWAYS_RED, shuffles, stageSeed++);
+        }
+        System.out.printf("%d failed checks (%.1f s)%n", check.getFailures(), (System.nanoTime() - start) / 1e9);
+        if (check.getFailures() > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.kristautas2.ridethebus.core.sim;
+
+import com.kristautas2.ridethebus.core.logic.PayoutTable;
+
+// Primitive counters of a batch of rounds; one per worker, merged at the end
+public final class SimulationResult {
+    private long rounds;
+    private long totalReturn; // sum of payout multipliers in PayoutTable units, bet = 1
+    private long totalReturnSquared;
+    private final long[] stageAttempts = new long[PayoutTable.STAGES];
+    private final long[] stageHits = new long[PayoutTable.STAGES];
+    private final long[] collects = new long[PayoutTable.STAGES]; // collects[s] = cashed out before stage s
+    private final long[] paid = new long[PayoutTable.STAGES]; // paid[s] = rounds paid the multiplier of stage s
+
+    void recordRound(int units) {
+        rounds++;
+        totalReturn += units;
+        totalReturnSquared += (long) units * units;
+    }
+
+    void recordPaid(int stage) {
+        paid[stage]++;
+    }
+
+    void recordGuess(int stage, boolean correct) {
+        stageAttempts[stage]++;
+        if (correct) {
+            stageHits[stage]++;
+        }
+    }
+
+    void recordCollect(int stage) {
+        collects[stage]++;
+    }
+
+    public SimulationResult merge(SimulationResult other) {
+        rounds += other.rounds;
+        totalReturn += other.totalReturn;
+        totalReturnSquared += other.totalReturnSquared;
+        for (int i = 0; i < PayoutTable.STAGES; i++) {
+            stageAttempts[i] += other.stageAttempts[i];
+            stageHits[i] += other.stageHits[i];
+            collects[i] += other.collects[i];
+            paid[i] += other.paid[i];
+        }
+        return this;
+    }
+
+    public long getRounds() {
+        return rounds;
+    }
+
+    // Sum of payout multipliers over all rounds, in PayoutTable units
+    public long getTotalReturn() {
+        return totalReturn;
+    }
+
+    // Average payout per unit bet, the bet itself included
+    public double getReturnToPlayer() {
+        return rounds == 0 ? 0 : (double) totalReturn / rounds / PayoutTable.SCALE;
+    }
+
+    public double getVariance() {
+        if (rounds == 0) return 0;
+        double mean = getReturnToPlayer();
+        return (double) totalReturnSquared / rounds / ((double) PayoutTable.SCALE * PayoutTable.SCALE) - mean * mean;
+    }
+
+    public double getStandardError() {
+        return rounds == 0 ? 0 : Math.sqrt(getVariance() / rounds);
+    }
+
+    public long getStageAttempts(int stage) {
+        return stageAttempts[stage];
+    }
+
+    public long getStageHits(int stage) {
+        return stageHits[stage];
+    }
+
+    public double getHitRate(int stage) {
+        return stageAttempts[stage] == 0 ? 0 : (double) stageHits[stage] / stageAttempts[stage];
+    }
+
+    public long getCollects(int stage) {
+        return collects[stage];
+    }
+
+    // Rounds that ended paying the multiplier of the given stage, by collecting or by winning stage 4
+    public long getPaid(int stage) {
+        return paid[stage];
+    }
+
+    public double getPaidRate(int stage) {
+        return rounds == 0 ? 0 : (double) paid[stage] / rounds;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("rounds=%d rtp=%.6f variance=%.4f stderr=%.6f",
+            rounds, getReturnToPlayer(), getVariance(), getStandardError()));
+        for (int i = 0; i < PayoutTable.STAGES; i++) {
+            sb.append(String.format("%n  stage %d: attempts=%d hitRate=%.6f collectedBefore=%d",
+                i + 1, stageAttempts[i], getHitRate(i), collects[i]));
+        }
+        return sb.toString();
+    }
+}
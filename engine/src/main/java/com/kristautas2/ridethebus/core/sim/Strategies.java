@@ -0,0 +1,189 @@
+package com.kristautas2.ridethebus.core.sim;
+
+import com.kristautas2.ridethebus.core.logic.PayoutTable;
+import com.kristautas2.ridethebus.core.model.Card;
+import com.kristautas2.ridethebus.core.model.Deck;
+
+public final class Strategies {
+    private static final int MID_VALUE = (Deck.MIN_VALUE + Deck.MAX_VALUE) / 2;
+    private static final Card.Suit[] SUITS = Card.Suit.values();
+
+    private Strategies() {
+    }
+
+    // Red, higher, outside, hearts, and never cash out
+    public static final Strategy ALWAYS_RED = new Strategy() {
+        @Override
+        public Card.Color guessColor() {
+            return Card.Color.RED;
+        }
+
+        @Override
+        public boolean guessHigher(Card first) {
+            return true;
+        }
+
+        @Override
+        public boolean guessInside(Card first, Card second) {
+            return false;
+        }
+
+        @Override
+        public Card.Suit guessSuit(Card first, Card second, Card third) {
+            return Card.Suit.HEARTS;
+        }
+
+        @Override
+        public boolean collect(int stage, Card[] dealt) {
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return "always-red";
+        }
+    };
+
+    // Guesses by the visible values only: away from the middle on higher/lower, inside only on wide gaps
+    public static final Strategy BASIC = new Strategy() {
+        @Override
+        public Card.Color guessColor() {
+            return Card.Color.RED;
+        }
+
+        @Override
+        public boolean guessHigher(Card first) {
+            return first.getCardValue() < MID_VALUE;
+        }
+
+        @Override
+        public boolean guessInside(Card first, Card second) {
+            int gap = Math.abs(first.getCardValue() - second.getCardValue()) - 1;
+            return gap > Card.RANKS - gap;
+        }
+
+        @Override
+        public Card.Suit guessSuit(Card first, Card second, Card third) {
+            return Card.Suit.HEARTS;
+        }
+
+        @Override
+        public boolean collect(int stage, Card[] dealt) {
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return "basic";
+        }
+    };
+
+    // Picks the likeliest answer from the cards left in a single deck, and plays on only while the
+    // chance of the next stage times its multiplier beats collecting now (a one-step lookahead)
+    public static Strategy oddsGreedy(final PayoutTable payouts) {
+        return new Strategy() {
+            @Override
+            public Card.Color guessColor() {
+                return Card.Color.RED;
+            }
+
+            @Override
+            public boolean guessHigher(Card first) {
+                return higherCount(first) >= lowerCount(first);
+            }
+
+            @Override
+            public boolean guessInside(Card first, Card second) {
+                int inside = insideCount(first, second);
+                return inside > Card.COUNT - 2 - inside;
+            }
+
+            @Override
+            public Card.Suit guessSuit(Card first, Card second, Card third) {
+                Card.Suit best = Card.Suit.HEARTS;
+                int bestSeen = Integer.MAX_VALUE;
+                for (Card.Suit suit : SUITS) {
+                    int seen = (first.getCardSuit() == suit ? 1 : 0) + (second.getCardSuit() == suit ? 1 : 0)
+                        + (third.getCardSuit() == suit ? 1 : 0);
+                    if (seen < bestSeen) {
+                        best = suit;
+                        bestSeen = seen;
+                    }
+                }
+                return best;
+            }
+
+            @Override
+            public boolean collect(int stage, Card[] dealt) {
+                double chance;
+                if (stage == 1) {
+                    chance = (double) Math.max(higherCount(dealt[0]), lowerCount(dealt[0])) / (Card.COUNT - 1);
+                } else if (stage == 2) {
+                    int inside = insideCount(dealt[0], dealt[1]);
+                    chance = (double) Math.max(inside, Card.COUNT - 2 - inside) / (Card.COUNT - 2);
+                } else {
+                    int seen = 0;
+                    Card.Suit suit = guessSuit(dealt[0], dealt[1], dealt[2]);
+                    for (int i = 0; i < 3; i++) {
+                        if (dealt[i].getCardSuit() == suit) seen++;
+                    }
+                    chance = (double) (Card.RANKS - seen) / (Card.COUNT - 3);
+                }
+                return chance * payouts.units(stage) < payouts.units(stage - 1);
+            }
+
+            @Override
+            public String toString() {
+                return "odds-greedy";
+            }
+        };
+    }
+
+    private static int higherCount(Card card) {
+        return 4 * (Deck.MAX_VALUE - card.getCardValue());
+    }
+
+    private static int lowerCount(Card card) {
+        return 4 * (card.getCardValue() - Deck.MIN_VALUE);
+    }
+
+    // Cards strictly between the two values; neither boundary card is among them
+    private static int insideCount(Card first, Card second) {
+        return 4 * Math.max(0, Math.abs(first.getCardValue() - second.getCardValue()) - 1);
+    }
+
+    // Plays like base but cashes out as soon as the given stage is reached
+    public static Strategy collectAt(final int collectStage, final Strategy base) {
+        return new Strategy() {
+            @Override
+            public Card.Color guessColor() {
+                return base.guessColor();
+            }
+
+            @Override
+            public boolean guessHigher(Card first) {
+                return base.guessHigher(first);
+            }
+
+            @Override
+            public boolean guessInside(Card first, Card second) {
+                return base.guessInside(first, second);
+            }
+
+            @Override
+            public Card.Suit guessSuit(Card first, Card second, Card third) {
+                return base.guessSuit(first, second, third);
+            }
+
+            @Override
+            public boolean collect(int stage, Card[] dealt) {
+                return stage >= collectStage || base.collect(stage, dealt);
+            }
+
+            @Override
+            public String toString() {
+                return base + "-collect@" + collectStage;
+            }
+        };
+    }
+}
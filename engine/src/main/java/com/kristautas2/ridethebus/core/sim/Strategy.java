@@ -0,0 +1,18 @@
+package com.kristautas2.ridethebus.core.sim;
+
+import com.kristautas2.ridethebus.core.model.Card;
+
+// Decides every guess of a round. Shared by all simulation workers, so implementations must be stateless.
+public interface Strategy {
+    Card.Color guessColor();
+
+    boolean guessHigher(Card first);
+
+    boolean guessInside(Card first, Card second);
+
+    Card.Suit guessSuit(Card first, Card second, Card third);
+
+    // Asked before stages 1-3 once the previous stage was won; dealt[0..stage) holds the open cards.
+    // Returning true collects the winnings of stage - 1 instead of playing on.
+    boolean collect(int stage, Card[] dealt);
+}
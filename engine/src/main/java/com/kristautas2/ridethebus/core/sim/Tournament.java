@@ -0,0 +1,371 @@
+package com.kristautas2.ridethebus.core.sim;
+
+import com.kristautas2.ridethebus.core.logic.PayoutTable;
+import com.kristautas2.ridethebus.core.model.Card;
+import com.kristautas2.ridethebus.core.model.Deck;
+import com.kristautas2.ridethebus.core.solver.PolicyTable;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Every registered strategy plays every round on the same cards (common random numbers), so the
+// paired differences between two strategies carry only the variance of their disagreements.
+// Rounds are split over a fork/join pool in contiguous, seed-determined blocks, so the drawdown of
+// the whole sequence can be merged from per-block prefix extremes.
+public final class Tournament {
+    static final long ROUNDS_PER_TASK = 1 << 16;
+    private static final int MAGIC = 0x52544254; // "RTBT"
+    private static final int VERSION = 1;
+
+    private final PayoutTable payouts;
+    private final ForkJoinPool pool;
+    private final List<Strategy> strategies = new ArrayList<>();
+
+    public Tournament(PayoutTable payouts) {
+        this(payouts, ForkJoinPool.commonPool());
+    }
+
+    public Tournament(PayoutTable payouts, ForkJoinPool pool) {
+        this.payouts = payouts.requireStages(PayoutTable.STAGES);
+        this.pool = pool;
+    }
+
+    public Tournament register(Strategy strategy) {
+        strategies.add(strategy);
+        return this;
+    }
+
+    // Same strategies, rounds and seed always give the same standings, whatever the number of cores
+    public Standings run(long rounds, long seed) {
+        RoundSimulator[] players = new RoundSimulator[strategies.size()];
+        String[] names = new String[players.length];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = new RoundSimulator(payouts, strategies.get(i), pool);
+            names[i] = strategies.get(i).toString();
+        }
+        Block block = pool.invoke(new BlockTask(players, rounds, seed));
+        return new Standings(names, payouts, seed, block.scores, block.pairs);
+    }
+
+    // Net result of one strategy over the round sequence, in PayoutTable units per unit bet
+    public static final class Score {
+        final RunningStats stats;
+        long total;     // net over the whole sequence
+        long maxPrefix; // highest running net, counting the start (0)
+        long minPrefix; // lowest running net, counting the start (0)
+        long maxDrawdown;
+
+        Score() {
+            this(new RunningStats(), 0, 0, 0, 0);
+        }
+
+        Score(RunningStats stats, long total, long maxPrefix, long minPrefix, long maxDrawdown) {
+            this.stats = stats;
+            this.total = total;
+            this.maxPrefix = maxPrefix;
+            this.minPrefix = minPrefix;
+            this.maxDrawdown = maxDrawdown;
+        }
+
+        void add(long net) {
+            stats.add((double) net / PayoutTable.SCALE);
+            total += net;
+            maxPrefix = Math.max(maxPrefix, total);
+            minPrefix = Math.min(minPrefix, total);
+            maxDrawdown = Math.max(maxDrawdown, maxPrefix - total);
+        }
+
+        // Appends the rounds of next, which directly follow this block's
+        Score merge(Score next) {
+            stats.merge(next.stats);
+            maxDrawdown = Math.max(Math.max(maxDrawdown, next.maxDrawdown), maxPrefix - (total + next.minPrefix));
+            maxPrefix = Math.max(maxPrefix, total + next.maxPrefix);
+            minPrefix = Math.min(minPrefix, total + next.minPrefix);
+            total += next.total;
+            return this;
+        }
+
+        // Mean net result per round, in bets
+        public double getMean() {
+            return stats.getMean();
+        }
+
+        public double getVariance() {
+            return stats.getVariance();
+        }
+
+        // Largest peak-to-trough fall of the running net, in bets
+        public double getMaxDrawdown() {
+            return (double) maxDrawdown / PayoutTable.SCALE;
+        }
+
+        public double getTotal() {
+            return (double) total / PayoutTable.SCALE;
+        }
+    }
+
+    public static final class Standings {
+        final String[] names;
+        final PayoutTable payouts;
+        final long seed;
+        final Score[] scores;
+        final RunningStats[] pairs; // pairs[i * n + j], i < j: net(i) - net(j) on the same cards
+
+        Standings(String[] names, PayoutTable payouts, long seed, Score[] scores, RunningStats[] pairs) {
+            this.names = names;
+            this.payouts = payouts;
+            this.seed = seed;
+            this.scores = scores;
+            this.pairs = pairs;
+        }
+
+        public int size() {
+            return names.length;
+        }
+
+        public String getName(int strategy) {
+            return names[strategy];
+        }
+
+        public Score getScore(int strategy) {
+            return scores[strategy];
+        }
+
+        public long getRounds() {
+            return scores.length == 0 ? 0 : scores[0].stats.getCount();
+        }
+
+        // Paired mean(a) - mean(b) on the same cards
+        public RunningStats difference(int a, int b) {
+            if (a == b) {
+                throw new IllegalArgumentException("A strategy has no difference with itself");
+            }
+            if (a < b) return pairs[a * names.length + b];
+            RunningStats swapped = pairs[b * names.length + a];
+            return RunningStats.of(swapped.getCount(), -swapped.getMean(), swapped.getVariance());
+        }
+
+        // Strategy indices by mean, then lower variance, then lower drawdown
+        public Integer[] leaderboard() {
+            Integer[] order = new Integer[names.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator
+                .comparingDouble((Integer i) -> -scores[i].getMean())
+                .thenComparingDouble(i -> scores[i].getVariance())
+                .thenComparingLong(i -> scores[i].maxDrawdown));
+            return order;
+        }
+
+        public void write(Path file) throws IOException {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, "tournament", ".tmp");
+            try (OutputStream stream = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(stream)) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(seed);
+                for (int stage = 0; stage < PayoutTable.STAGES; stage++) {
+                    out.writeInt(payouts.units(stage));
+                }
+                out.writeInt(names.length);
+                for (int i = 0; i < names.length; i++) {
+                    Score score = scores[i];
+                    out.writeUTF(names[i]);
+                    writeStats(out, score.stats);
+                    out.writeLong(score.total);
+                    out.writeLong(score.maxPrefix);
+                    out.writeLong(score.minPrefix);
+                    out.writeLong(score.maxDrawdown);
+                }
+                for (int i = 0; i < names.length; i++) {
+                    for (int j = i + 1; j < names.length; j++) {
+                        writeStats(out, pairs[i * names.length + j]);
+                    }
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        public static Standings read(Path file) throws IOException {
+            try (InputStream stream = Files.newInputStream(file);
+                 DataInputStream in = new DataInputStream(stream)) {
+                if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                    throw new IOException("Not a tournament result file: " + file);
+                }
+                long seed = in.readLong();
+                int[] units = new int[PayoutTable.STAGES];
+                for (int stage = 0; stage < units.length; stage++) {
+                    units[stage] = in.readInt();
+                }
+                int n = in.readInt();
+                String[] names = new String[n];
+                Score[] scores = new Score[n];
+                for (int i = 0; i < n; i++) {
+                    names[i] = in.readUTF();
+                    scores[i] = new Score(readStats(in), in.readLong(), in.readLong(), in.readLong(), in.readLong());
+                }
+                RunningStats[] pairs = new RunningStats[n * n];
+                for (int i = 0; i < n; i++) {
+                    for (int j = i + 1; j < n; j++) {
+                        pairs[i * n + j] = readStats(in);
+                    }
+                }
+                return new Standings(names, PayoutTable.ofUnits(units), seed, scores, pairs);
+            }
+        }
+
+        private static void writeStats(DataOutputStream out, RunningStats stats) throws IOException {
+            out.writeLong(stats.getCount());
+            out.writeDouble(stats.getMean());
+            out.writeDouble(stats.getVariance());
+        }
+
+        private static RunningStats readStats(DataInputStream in) throws IOException {
+            return RunningStats.of(in.readLong(), in.readDouble(), in.readDouble());
+        }
+
+        // Leaderboard; "vs next" is the paired difference to the strategy ranked right below, with its 95%
+        // interval and how much narrower it is than comparing two independent runs would give
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(String.format(
+                "Payouts %s, %d rounds, seed %d%n  #  %-28s %10s %9s %11s   %s",
+                payouts, getRounds(), seed, "strategy", "mean", "sd", "drawdown", "vs next (95%, CRN gain)"));
+            Integer[] order = leaderboard();
+            for (int rank = 0; rank < order.length; rank++) {
+                int i = order[rank];
+                Score score = scores[i];
+                sb.append(String.format("%n %2d  %-28s %+10.6f %9.4f %11.1f", rank + 1, names[i], score.getMean(),
+                    Math.sqrt(score.getVariance()), score.getMaxDrawdown()));
+                if (rank + 1 < order.length) {
+                    int next = order[rank + 1];
+                    RunningStats difference = difference(i, next);
+                    double independent = Math.sqrt((score.getVariance() + scores[next].getVariance()) / difference.getCount());
+                    double paired = difference.getStandardError();
+                    sb.append(String.format("   %+.6f +/- %.6f%s (x%.0f)", difference.getMean(),
+                        difference.getHalfWidth(ConvergentSimulator.Z_95),
+                        Math.abs(difference.getMean()) > difference.getHalfWidth(ConvergentSimulator.Z_95) ? "" : " tied",
+                        paired > 0 ? independent * independent / (paired * paired) : Double.POSITIVE_INFINITY));
+                }
+            }
+            return sb.toString();
+        }
+    }
+
+    private static final class Block {
+        final Score[] scores;
+        final RunningStats[] pairs;
+
+        Block(int players) {
+            scores = new Score[players];
+            for (int i = 0; i < players; i++) {
+                scores[i] = new Score();
+            }
+            pairs = new RunningStats[players * players];
+            for (int i = 0; i < players; i++) {
+                for (int j = i + 1; j < players; j++) {
+                    pairs[i * players + j] = new RunningStats();
+                }
+            }
+        }
+
+        Block merge(Block next) {
+            for (int i = 0; i < scores.length; i++) {
+                scores[i].merge(next.scores[i]);
+            }
+            for (int i = 0; i < pairs.length; i++) {
+                if (pairs[i] != null) {
+                    pairs[i].merge(next.pairs[i]);
+                }
+            }
+            return this;
+        }
+    }
+
+    private static final class BlockTask extends RecursiveTask<Block> {
+        private final RoundSimulator[] players;
+        private final long rounds;
+        private final long seed;
+
+        BlockTask(RoundSimulator[] players, long rounds, long seed) {
+            this.players = players;
+            this.rounds = rounds;
+            this.seed = seed;
+        }
+
+        @Override
+        protected Block compute() {
+            if (rounds > ROUNDS_PER_TASK) {
+                SplittableRandom seeds = new SplittableRandom(seed);
+                long half = rounds / 2;
+                BlockTask first = new BlockTask(players, half, seeds.nextLong());
+                BlockTask second = new BlockTask(players, rounds - half, seeds.nextLong());
+                second.fork();
+                Block block = first.compute();
+                return block.merge(second.join()); // blocks must merge in round order for the drawdown
+            }
+            int n = players.length;
+            SplittableRandom random = new SplittableRandom(seed);
+            Deck deck = new Deck(random::nextInt);
+            Card[] dealt = new Card[PayoutTable.STAGES];
+            SimulationResult ignored = new SimulationResult();
+            long[] net = new long[n];
+            Block block = new Block(n);
+            for (long r = 0; r < rounds; r++) {
+                deck.shuffleFirst(PayoutTable.STAGES);
+                Card c0 = deck.drawCard(), c1 = deck.drawCard(), c2 = deck.drawCard(), c3 = deck.drawCard();
+                for (int i = 0; i < n; i++) {
+                    net[i] = players[i].playRound(c0, c1, c2, c3, dealt, ignored) - PayoutTable.SCALE;
+                    block.scores[i].add(net[i]);
+                }
+                for (int i = 0; i < n; i++) {
+                    for (int j = i + 1; j < n; j++) {
+                        block.pairs[i * n + j].add((double) (net[i] - net[j]) / PayoutTable.SCALE);
+                    }
+                }
+            }
+            return block;
+        }
+    }
+
+    // Usage: Tournament [rounds] [seed] [result file, default build/tournament.bin]
+    public static void main(String[] args) throws IOException {
+        long rounds = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+        Path file = Paths.get(args.length > 2 ? args[2] : "build/tournament.bin");
+        PayoutTable payouts = PayoutTable.DEFAULT;
+
+        Tournament tournament = new Tournament(payouts)
+            .register(Strategies.ALWAYS_RED)
+            .register(Strategies.BASIC)
+            .register(Strategies.oddsGreedy(payouts))
+            .register(PolicyTable.load(PolicyTable.defaultFile(Paths.get("build/policy"), payouts), payouts));
+        for (int stage = 1; stage < PayoutTable.STAGES; stage++) {
+            tournament.register(Strategies.collectAt(stage, Strategies.BASIC));
+        }
+
+        long start = System.nanoTime();
+        Standings standings = tournament.run(rounds, seed);
+        System.out.println(standings);
+        System.out.printf("(%.2f s)%n", (System.nanoTime() - start) / 1e9);
+        standings.write(file);
+        System.out.println("Results written to " + file);
+    }
+}
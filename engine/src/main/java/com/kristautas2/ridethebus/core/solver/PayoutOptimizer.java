@@ -0,0 +1,223 @@
+package com.kristautas2.ridethebus.core.solver;
+
+import com.kristautas2.ridethebus.core.logic.PayoutTable;
+import com.kristautas2.ridethebus.core.sim.ExhaustiveEvaluator;
+import com.kristautas2.ridethebus.core.sim.SimulationResult;
+import com.kristautas2.ridethebus.core.sim.Strategies;
+import com.kristautas2.ridethebus.core.sim.Strategy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Searches payout ladders m1 <= m2 <= m3 <= m4 for a target return to player within a volatility budget.
+// Every candidate is scored exactly: against the optimal policy (PolicySolver, re-solved per table) or,
+// for a fixed strategy, from its exact paid-stage distribution (one ExhaustiveEvaluator run, then O(1)).
+// The return to player never drops when a multiplier grows, so the search walks each stage upwards and
+// cuts off whole regions that are already above the target or can no longer reach it.
+public final class PayoutOptimizer {
+    public static final class Candidate {
+        final PayoutTable payouts;
+        final double returnToPlayer;
+        final double standardDeviation;
+
+        Candidate(PayoutTable payouts, double returnToPlayer, double standardDeviation) {
+            this.payouts = payouts;
+            this.returnToPlayer = returnToPlayer;
+            this.standardDeviation = standardDeviation;
+        }
+
+        public PayoutTable getPayouts() {
+            return payouts;
+        }
+
+        public double getReturnToPlayer() {
+            return returnToPlayer;
+        }
+
+        public double getStandardDeviation() {
+            return standardDeviation;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s rtp=%.6f sd=%.4f", payouts, returnToPlayer, standardDeviation);
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final double[] fixedPaid; // null when players follow the optimal policy
+    private final String playerName;
+    private final ConcurrentHashMap<PayoutTable, Candidate> cache = new ConcurrentHashMap<>();
+
+    // Scores every table against a player using the optimal continue-vs-collect policy
+    public PayoutOptimizer(ForkJoinPool pool) {
+        this.pool = pool;
+        this.fixedPaid = null;
+        this.playerName = "optimal";
+    }
+
+    // Scores every table against a fixed strategy whose decisions do not depend on the payouts
+    public PayoutOptimizer(Strategy strategy, ForkJoinPool pool) {
+        this.pool = pool;
+        this.playerName = strategy.toString();
+        SimulationResult exact = new ExhaustiveEvaluator(PayoutTable.DEFAULT, strategy, pool).evaluate();
+        fixedPaid = new double[PayoutTable.STAGES];
+        for (int stage = 0; stage < PayoutTable.STAGES; stage++) {
+            fixedPaid[stage] = exact.getPaidRate(stage);
+        }
+    }
+
+    public Candidate score(PayoutTable payouts) {
+        Candidate cached = cache.get(payouts);
+        if (cached != null) return cached;
+        Candidate candidate;
+        if (fixedPaid == null) {
+            PolicySolver.Solution solution = PolicySolver.solve(payouts);
+            candidate = new Candidate(payouts, solution.getExpectedValue(), Math.sqrt(solution.getVariance()));
+        } else {
+            double mean = 0;
+            double secondMoment = 0;
+            for (int stage = 0; stage < PayoutTable.STAGES; stage++) {
+                double m = payouts.multiplier(stage);
+                mean += fixedPaid[stage] * m;
+                secondMoment += fixedPaid[stage] * m * m;
+            }
+            candidate = new Candidate(payouts, mean, Math.sqrt(secondMoment - mean * mean));
+        }
+        Candidate raced = cache.putIfAbsent(payouts, candidate);
+        return raced != null ? raced : candidate;
+    }
+
+    public int getCacheSize() {
+        return cache.size();
+    }
+
+    // Best tables on the grid [minUnits, maxUnits] (PayoutTable units, step apart) whose return to player
+    // is within tolerance of the target and whose standard deviation is at most maxStandardDeviation,
+    // closest to the target first
+    public List<Candidate> search(double target, double tolerance, double maxStandardDeviation,
+                                  int minUnits, int maxUnits, int step, int limit) {
+        Search search = new Search(target, tolerance, maxStandardDeviation, minUnits, maxUnits, step);
+        List<int[]> prefixes = new ArrayList<>();
+        for (int m0 = minUnits; m0 <= maxUnits; m0 += step) {
+            if (search.tooHigh(m0, m0, m0, m0)) break;
+            for (int m1 = m0; m1 <= maxUnits; m1 += step) {
+                if (search.tooHigh(m0, m1, m1, m1)) break;
+                if (search.tooLow(m0, m1, maxUnits, maxUnits)) continue;
+                prefixes.add(new int[]{m0, m1});
+            }
+        }
+        pool.invoke(new PrefixTask(search, prefixes, 0, prefixes.size()));
+
+        List<Candidate> found = new ArrayList<>(search.feasible);
+        Collections.sort(found, Comparator
+            .comparingDouble((Candidate c) -> Math.abs(c.returnToPlayer - target))
+            .thenComparingDouble(c -> c.standardDeviation));
+        return found.subList(0, Math.min(limit, found.size()));
+    }
+
+    private final class Search {
+        final double low, high, maxStandardDeviation;
+        final int minUnits, maxUnits, step;
+        final ConcurrentLinkedQueue<Candidate> feasible = new ConcurrentLinkedQueue<>();
+
+        Search(double target, double tolerance, double maxStandardDeviation, int minUnits, int maxUnits, int step) {
+            this.low = target - tolerance;
+            this.high = target + tolerance;
+            this.maxStandardDeviation = maxStandardDeviation;
+            this.minUnits = minUnits;
+            this.maxUnits = maxUnits;
+            this.step = step;
+        }
+
+        boolean tooHigh(int m0, int m1, int m2, int m3) {
+            return score(PayoutTable.ofUnits(m0, m1, m2, m3)).returnToPlayer > high;
+        }
+
+        boolean tooLow(int m0, int m1, int m2, int m3) {
+            return score(PayoutTable.ofUnits(m0, m1, m2, m3)).returnToPlayer < low;
+        }
+
+        void searchPrefix(int m0, int m1) {
+            for (int m2 = m1; m2 <= maxUnits; m2 += step) {
+                if (tooHigh(m0, m1, m2, m2)) break;
+                if (tooLow(m0, m1, m2, maxUnits)) continue;
+                // first m3 that reaches the target, by bisection on the grid
+                int lo = 0;
+                int hi = (maxUnits - m2) / step;
+                while (lo < hi) {
+                    int mid = (lo + hi) >>> 1;
+                    if (tooLow(m0, m1, m2, m2 + mid * step)) lo = mid + 1; else hi = mid;
+                }
+                for (int m3 = m2 + lo * step; m3 <= maxUnits; m3 += step) {
+                    Candidate candidate = score(PayoutTable.ofUnits(m0, m1, m2, m3));
+                    if (candidate.returnToPlayer > high) break;
+                    if (candidate.standardDeviation <= maxStandardDeviation) {
+                        feasible.add(candidate);
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class PrefixTask extends RecursiveAction {
+        private final Search search;
+        private final List<int[]> prefixes;
+        private final int from, to;
+
+        PrefixTask(Search search, List<int[]> prefixes, int from, int to) {
+            this.search = search;
+            this.prefixes = prefixes;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new PrefixTask(search, prefixes, from, mid), new PrefixTask(search, prefixes, mid, to));
+            } else if (to > from) {
+                int[] prefix = prefixes.get(from);
+                search.searchPrefix(prefix[0], prefix[1]);
+            }
+        }
+    }
+
+    // Usage: PayoutOptimizer target tolerance maxStdDev [min max step] [optimal|basic|always-red]
+    // e.g. PayoutOptimizer 0.95 0.002 6 1 40 0.5 optimal
+    public static void main(String[] args) {
+        double target = args.length > 0 ? Double.parseDouble(args[0]) : 0.95;
+        double tolerance = args.length > 1 ? Double.parseDouble(args[1]) : 0.002;
+        double maxStdDev = args.length > 2 ? Double.parseDouble(args[2]) : Double.POSITIVE_INFINITY;
+        int min = args.length > 3 ? toUnits(args[3]) : PayoutTable.SCALE;
+        int max = args.length > 4 ? toUnits(args[4]) : 40 * PayoutTable.SCALE;
+        int step = args.length > 5 ? toUnits(args[5]) : PayoutTable.SCALE;
+        String player = args.length > 6 ? args[6] : "optimal";
+
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        PayoutOptimizer optimizer;
+        switch (player) {
+            case "basic": optimizer = new PayoutOptimizer(Strategies.BASIC, pool); break;
+            case "always-red": optimizer = new PayoutOptimizer(Strategies.ALWAYS_RED, pool); break;
+            default: optimizer = new PayoutOptimizer(pool);
+        }
+        long start = System.nanoTime();
+        List<Candidate> best = optimizer.search(target, tolerance, maxStdDev, min, max, step, 20);
+        System.out.printf("Player %s, target rtp %.4f +/- %.4f, sd <= %.2f: %d tables scored in %.1f s%n",
+            optimizer.playerName, target, tolerance, maxStdDev, optimizer.getCacheSize(), (System.nanoTime() - start) / 1e9);
+        for (Candidate candidate : best) {
+            System.out.println("  " + candidate);
+        }
+    }
+
+    private static int toUnits(String multiplier) {
+        return (int) Math.round(Double.parseDouble(multiplier) * PayoutTable.SCALE);
+    }
+}
@@ -0,0 +1,298 @@
+package com.kristautas2.ridethebus.core.solver;
+
+import com.kristautas2.ridethebus.core.logic.PayoutTable;
+import com.kristautas2.ridethebus.core.logic.Rules;
+import com.kristautas2.ridethebus.core.model.Card;
+import com.kristautas2.ridethebus.core.model.Deck;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+// Backward induction over every reachable (stage, dealt cards) state of a single-deck round.
+// Only the set of dealt cards matters for the odds, so states are keyed by combination:
+// stage 1 by the first card, stage 2 by the pair, stage 3 by the triple.
+public final class PolicySolver {
+    static final int STAGE1_STATES = Card.COUNT;
+    static final int STAGE2_STATES = Card.COUNT * (Card.COUNT - 1) / 2;
+    static final int STAGE3_STATES = Card.COUNT * (Card.COUNT - 1) * (Card.COUNT - 2) / 6;
+
+    static final int STAGE0_OFFSET = 0;
+    static final int STAGE1_OFFSET = 1;
+    static final int STAGE2_OFFSET = STAGE1_OFFSET + STAGE1_STATES;
+    static final int STAGE3_OFFSET = STAGE2_OFFSET + STAGE2_STATES;
+    static final int ACTION_COUNT = STAGE3_OFFSET + STAGE3_STATES;
+
+    // One byte per state: the best guess, plus COLLECT when taking the winnings beats it
+    static final byte COLLECT = (byte) 0x80;
+    static final int GUESS_MASK = 0x7F;
+    static final int RED = 0, BLACK = 1;
+    static final int HIGHER = 0, LOWER = 1;
+    static final int INSIDE = 0, OUTSIDE = 1;
+    // suits are stored as their ordinal
+
+    private static final Card.Suit[] SUITS = Card.Suit.values();
+
+    private PolicySolver() {
+    }
+
+    public static final class Solution {
+        final PayoutTable payouts;
+        final byte[] actions;
+        final double expectedValue;
+        final double[] paidProbability;
+
+        Solution(PayoutTable payouts, byte[] actions, double expectedValue, double[] paidProbability) {
+            this.payouts = payouts;
+            this.actions = actions;
+            this.expectedValue = expectedValue;
+            this.paidProbability = paidProbability;
+        }
+
+        public PayoutTable getPayouts() {
+            return payouts;
+        }
+
+        // Expected payout per unit bet of a round played with this policy
+        public double getExpectedValue() {
+            return expectedValue;
+        }
+
+        // Probability that a round ends paying the multiplier of the given stage
+        public double getPaidProbability(int stage) {
+            return paidProbability[stage];
+        }
+
+        // Variance of the payout per unit bet; every payout is one of the four multipliers or 0
+        public double getVariance() {
+            double secondMoment = 0;
+            for (int stage = 0; stage < PayoutTable.STAGES; stage++) {
+                double m = payouts.multiplier(stage);
+                secondMoment += paidProbability[stage] * m * m;
+            }
+            return secondMoment - expectedValue * expectedValue;
+        }
+    }
+
+    public static Solution solve(PayoutTable payouts) {
+        payouts.requireStages(PayoutTable.STAGES);
+        byte[] actions = new byte[ACTION_COUNT];
+        double m0 = payouts.multiplier(0);
+        double m1 = payouts.multiplier(1);
+        double m2 = payouts.multiplier(2);
+        double m3 = payouts.multiplier(3);
+
+        // Stage 3: 49 cards left, guess the suit or keep m2
+        double[] value3 = new double[STAGE3_STATES];
+        int[] suitLeft = new int[SUITS.length];
+        for (int c = 2; c < Card.COUNT; c++) {
+            for (int b = 1; b < c; b++) {
+                for (int a = 0; a < b; a++) {
+                    for (int s = 0; s < suitLeft.length; s++) {
+                        suitLeft[s] = Card.RANKS;
+                    }
+                    suitLeft[suitOf(a)]--;
+                    suitLeft[suitOf(b)]--;
+                    suitLeft[suitOf(c)]--;
+                    int best = 0;
+                    for (int s = 1; s < suitLeft.length; s++) {
+                        if (suitLeft[s] > suitLeft[best]) best = s;
+                    }
+                    double play = suitLeft[best] * m3 / (Card.COUNT - 3);
+                    int index = index3(a, b, c);
+                    value3[index] = decide(actions, STAGE3_OFFSET + index, best, play, m2);
+                }
+            }
+        }
+
+        // Stage 2: 50 cards left, inside or outside the first two values
+        double[] value2 = new double[STAGE2_STATES];
+        for (int b = 1; b < Card.COUNT; b++) {
+            for (int a = 0; a < b; a++) {
+                double inside = 0;
+                double outside = 0;
+                for (int c = 0; c < Card.COUNT; c++) {
+                    if (c == a || c == b) continue;
+                    double next = value3[index3Unsorted(a, b, c)];
+                    if (Rules.insideOutsideWins(true, valueOf(a), valueOf(b), valueOf(c))) {
+                        inside += next;
+                    } else {
+                        outside += next;
+                    }
+                }
+                int guess = inside >= outside ? INSIDE : OUTSIDE;
+                double play = Math.max(inside, outside) / (Card.COUNT - 2);
+                int index = index2(a, b);
+                value2[index] = decide(actions, STAGE2_OFFSET + index, guess, play, m1);
+            }
+        }
+
+        // Stage 1: 51 cards left, higher or lower than the first card
+        double[] value1 = new double[STAGE1_STATES];
+        for (int a = 0; a < Card.COUNT; a++) {
+            double higher = 0;
+            double lower = 0;
+            for (int b = 0; b < Card.COUNT; b++) {
+                if (b == a) continue;
+                double next = value2[index2Unsorted(a, b)];
+                if (Rules.higherLowerWins(true, valueOf(a), valueOf(b))) {
+                    higher += next;
+                } else if (Rules.higherLowerWins(false, valueOf(a), valueOf(b))) {
+                    lower += next;
+                }
+            }
+            int guess = higher >= lower ? HIGHER : LOWER;
+            double play = Math.max(higher, lower) / (Card.COUNT - 1);
+            value1[a] = decide(actions, STAGE1_OFFSET + a, guess, play, m0);
+        }
+
+        // Stage 0: red or black, nothing to collect yet
+        double red = 0;
+        double black = 0;
+        for (int a = 0; a < Card.COUNT; a++) {
+            if (SUITS[suitOf(a)].getColor() == Card.Color.RED) {
+                red += value1[a];
+            } else {
+                black += value1[a];
+            }
+        }
+        actions[STAGE0_OFFSET] = (byte) (red >= black ? RED : BLACK);
+        return new Solution(payouts, actions, Math.max(red, black) / Card.COUNT, paidProbabilities(actions));
+    }
+
+    // Forward pass: pushes the probability of reaching each state through the chosen actions
+    private static double[] paidProbabilities(byte[] actions) {
+        double[] paid = new double[PayoutTable.STAGES];
+
+        double[] mass1 = new double[STAGE1_STATES];
+        int color = actions[STAGE0_OFFSET] & GUESS_MASK;
+        for (int a = 0; a < Card.COUNT; a++) {
+            if (SUITS[suitOf(a)].getColor().ordinal() == color) {
+                mass1[a] = 1.0 / Card.COUNT;
+            }
+        }
+
+        double[] mass2 = new double[STAGE2_STATES];
+        for (int a = 0; a < Card.COUNT; a++) {
+            double mass = mass1[a];
+            int action = actions[STAGE1_OFFSET + a];
+            if (mass == 0) continue;
+            if ((action & COLLECT) != 0) {
+                paid[0] += mass;
+                continue;
+            }
+            boolean higher = (action & GUESS_MASK) == HIGHER;
+            for (int b = 0; b < Card.COUNT; b++) {
+                if (b != a && Rules.higherLowerWins(higher, valueOf(a), valueOf(b))) {
+                    mass2[index2Unsorted(a, b)] += mass / (Card.COUNT - 1);
+                }
+            }
+        }
+
+        double[] mass3 = new double[STAGE3_STATES];
+        for (int b = 1; b < Card.COUNT; b++) {
+            for (int a = 0; a < b; a++) {
+                int index = index2(a, b);
+                double mass = mass2[index];
+                int action = actions[STAGE2_OFFSET + index];
+                if (mass == 0) continue;
+                if ((action & COLLECT) != 0) {
+                    paid[1] += mass;
+                    continue;
+                }
+                boolean inside = (action & GUESS_MASK) == INSIDE;
+                for (int c = 0; c < Card.COUNT; c++) {
+                    if (c != a && c != b && Rules.insideOutsideWins(inside, valueOf(a), valueOf(b), valueOf(c))) {
+                        mass3[index3Unsorted(a, b, c)] += mass / (Card.COUNT - 2);
+                    }
+                }
+            }
+        }
+
+        for (int c = 2; c < Card.COUNT; c++) {
+            for (int b = 1; b < c; b++) {
+                for (int a = 0; a < b; a++) {
+                    int index = index3(a, b, c);
+                    double mass = mass3[index];
+                    int action = actions[STAGE3_OFFSET + index];
+                    if (mass == 0) continue;
+                    if ((action & COLLECT) != 0) {
+                        paid[2] += mass;
+                        continue;
+                    }
+                    int suit = action & GUESS_MASK;
+                    int left = Card.RANKS;
+                    if (suitOf(a) == suit) left--;
+                    if (suitOf(b) == suit) left--;
+                    if (suitOf(c) == suit) left--;
+                    paid[3] += mass * left / (Card.COUNT - 3);
+                }
+            }
+        }
+        return paid;
+    }
+
+    private static double decide(byte[] actions, int slot, int guess, double play, double collect) {
+        if (collect > play) {
+            actions[slot] = (byte) (guess | COLLECT);
+            return collect;
+        }
+        actions[slot] = (byte) guess;
+        return play;
+    }
+
+    static int suitOf(int id) {
+        return id / Card.RANKS;
+    }
+
+    static int valueOf(int id) {
+        return id % Card.RANKS + Deck.MIN_VALUE;
+    }
+
+    // Combinatorial number system: a < b (< c) map densely onto [0, C(52, k))
+    static int index2(int a, int b) {
+        return b * (b - 1) / 2 + a;
+    }
+
+    static int index3(int a, int b, int c) {
+        return c * (c - 1) * (c - 2) / 6 + index2(a, b);
+    }
+
+    static int index3Unsorted(int x, int y, int z) {
+        int a = Math.min(x, Math.min(y, z));
+        int c = Math.max(x, Math.max(y, z));
+        int b = x + y + z - a - c;
+        return index3(a, b, c);
+    }
+
+    static int index2Unsorted(int x, int y) {
+        return index2(Math.min(x, y), Math.max(x, y));
+    }
+
+    // Action slot of the state reached after dealing the cards in dealtMask (0 to 3 cards)
+    static int slot(long dealtMask) {
+        long rest = dealtMask;
+        int a = Long.numberOfTrailingZeros(rest);
+        rest &= rest - 1;
+        int b = Long.numberOfTrailingZeros(rest);
+        rest &= rest - 1;
+        int c = Long.numberOfTrailingZeros(rest);
+        switch (Long.bitCount(dealtMask)) {
+            case 0: return STAGE0_OFFSET;
+            case 1: return STAGE1_OFFSET + a;
+            case 2: return STAGE2_OFFSET + index2(a, b);
+            case 3: return STAGE3_OFFSET + index3(a, b, c);
+            default: throw new IllegalArgumentException("No decision after " + Long.bitCount(dealtMask) + " cards");
+        }
+    }
+
+    // Usage: PolicySolver [directory] [payouts, e.g. 2,4,8,32]
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(args.length > 0 ? args[0] : "build/policy");
+        PayoutTable payouts = args.length > 1 ? PayoutTable.parse(args[1]) : PayoutTable.DEFAULT;
+        long start = System.nanoTime();
+        PolicyTable policy = PolicyTable.load(PolicyTable.defaultFile(directory, payouts), payouts);
+        System.out.printf("Payouts %s: optimal return to player %.9f (%.1f ms)%n",
+            payouts, policy.getExpectedValue(), (System.nanoTime() - start) / 1e6);
+    }
+}
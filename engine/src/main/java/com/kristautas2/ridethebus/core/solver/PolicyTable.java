@@ -0,0 +1,147 @@
+package com.kristautas2.ridethebus.core.solver;
+
+import com.kristautas2.ridethebus.core.logic.PayoutTable;
+import com.kristautas2.ridethebus.core.model.Card;
+import com.kristautas2.ridethebus.core.sim.Strategy;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+// The solved continue-vs-collect policy, memory-mapped from a file written once per payout table.
+// Every lookup is a single absolute read from the mapping.
+public final class PolicyTable implements Strategy {
+    private static final int MAGIC = 0x52544250; // "RTBP"
+    private static final int VERSION = 2;
+    private static final Card.Suit[] SUITS = Card.Suit.values();
+    private static final int HEADER_BYTES = 4 + 4 + 4 * PayoutTable.STAGES + 8;
+
+    private final ByteBuffer actions;
+    private final double expectedValue;
+
+    private PolicyTable(ByteBuffer actions, double expectedValue) {
+        this.actions = actions;
+        this.expectedValue = expectedValue;
+    }
+
+    public static Path defaultFile(Path directory, PayoutTable payouts) {
+        return directory.resolve("policy-" + Integer.toHexString(payouts.hashCode()) + ".bin");
+    }
+
+    // Maps the policy stored in file, solving and (re)writing it first when it is missing,
+    // corrupt or was solved for a different payout table
+    public static PolicyTable load(Path file, PayoutTable payouts) throws IOException {
+        if (!matches(file, payouts)) {
+            System.out.println("Solving policy for payouts " + payouts + " into " + file);
+            write(file, payouts, PolicySolver.solve(payouts));
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            double expectedValue = buffer.getDouble(HEADER_BYTES - 8);
+            buffer.position(HEADER_BYTES);
+            return new PolicyTable(buffer.slice(), expectedValue);
+        }
+    }
+
+    private static boolean matches(Path file, PayoutTable payouts) throws IOException {
+        if (!Files.isRegularFile(file) || Files.size(file) != HEADER_BYTES + PolicySolver.ACTION_COUNT) {
+            return false;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES - 8);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // keep reading
+            }
+        }
+        header.flip();
+        if (header.remaining() < HEADER_BYTES - 8 || header.getInt() != MAGIC || header.getInt() != VERSION) {
+            return false;
+        }
+        for (int stage = 0; stage < PayoutTable.STAGES; stage++) {
+            if (header.getInt() != payouts.units(stage)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void write(Path file, PayoutTable payouts, PolicySolver.Solution solution) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, "policy", ".tmp");
+        try (OutputStream stream = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(stream)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            for (int stage = 0; stage < PayoutTable.STAGES; stage++) {
+                out.writeInt(payouts.units(stage));
+            }
+            out.writeDouble(solution.expectedValue);
+            out.write(solution.actions);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Expected payout per unit bet when every decision follows this table
+    public double getExpectedValue() {
+        return expectedValue;
+    }
+
+    @Override
+    public Card.Color guessColor() {
+        return guess(PolicySolver.STAGE0_OFFSET) == PolicySolver.RED ? Card.Color.RED : Card.Color.BLACK;
+    }
+
+    @Override
+    public boolean guessHigher(Card first) {
+        return guess(PolicySolver.STAGE1_OFFSET + first.getId()) == PolicySolver.HIGHER;
+    }
+
+    @Override
+    public boolean guessInside(Card first, Card second) {
+        return guess(PolicySolver.STAGE2_OFFSET + PolicySolver.index2Unsorted(first.getId(), second.getId()))
+            == PolicySolver.INSIDE;
+    }
+
+    @Override
+    public Card.Suit guessSuit(Card first, Card second, Card third) {
+        return SUITS[guess(stage3Slot(first, second, third))];
+    }
+
+    @Override
+    public boolean collect(int stage, Card[] dealt) {
+        int slot;
+        switch (stage) {
+            case 1: slot = PolicySolver.STAGE1_OFFSET + dealt[0].getId(); break;
+            case 2: slot = PolicySolver.STAGE2_OFFSET + PolicySolver.index2Unsorted(dealt[0].getId(), dealt[1].getId()); break;
+            case 3: slot = stage3Slot(dealt[0], dealt[1], dealt[2]); break;
+            default: return false;
+        }
+        return (actions.get(slot) & PolicySolver.COLLECT) != 0;
+    }
+
+    // Whether to collect instead of guessing, for the cards dealt so far (e.g. GameManager.getDealtMask())
+    public boolean shouldCollect(long dealtMask) {
+        return (actions.get(PolicySolver.slot(dealtMask)) & PolicySolver.COLLECT) != 0;
+    }
+
+    private static int stage3Slot(Card first, Card second, Card third) {
+        return PolicySolver.STAGE3_OFFSET + PolicySolver.index3Unsorted(first.getId(), second.getId(), third.getId());
+    }
+
+    private int guess(int slot) {
+        return actions.get(slot) & PolicySolver.GUESS_MASK;
+    }
+
+    @Override
+    public String toString() {
+        return "optimal";
+    }
+}
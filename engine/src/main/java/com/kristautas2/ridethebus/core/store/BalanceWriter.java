@@ -0,0 +1,139 @@
+package com.kristautas2.ridethebus.core.store;
+
+import com.kristautas2.ridethebus.core.model.Player;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+// Saves the balance and high score on a background thread. save() never blocks or touches the disk: it
+// replaces the pending value and wakes the writer, so a burst of updates ends up as one write of the
+// latest value, and a value equal to the one on disk is not written at all. Each write goes to a temp
+// file that is forced to disk and renamed over the target, so a crash leaves the old file or the new
+// one, never a torn mix. close() writes whatever is still pending. A write that fails is logged once and
+// not retried on a timer: the next save() supersedes it, and close() tries it again if nothing did.
+public final class BalanceWriter implements Closeable {
+    public static final Path DEFAULT_FILE = Paths.get("assets/gameData/balance.txt");
+    private static final long LINGER_NANOS = TimeUnit.MILLISECONDS.toNanos(50); // how long a burst may take
+
+    private static final class Balance {
+        final long balance;
+        final long highScore;
+
+        Balance(long balance, long highScore) {
+            this.balance = balance;
+            this.highScore = highScore;
+        }
+
+        boolean same(Balance other) {
+            return other != null && balance == other.balance && highScore == other.highScore;
+        }
+    }
+
+    private final Path file;
+    private final AtomicReference<Balance> pending = new AtomicReference<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+    private Balance written; // writer thread only
+    private Balance failed;  // writer thread only: the last value that could not be written, if no write since
+    private volatile long writes;
+
+    public BalanceWriter(Path file) {
+        this.file = file;
+        this.thread = new Thread(this::run, "balance-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void save(Player player) {
+        save(player.getBalance(), player.getHighScore());
+    }
+
+    // Any thread; returns at once
+    public void save(long balance, long highScore) {
+        pending.set(new Balance(balance, highScore));
+        LockSupport.unpark(thread);
+    }
+
+    // Files actually written so far
+    public long getWrites() {
+        return writes;
+    }
+
+    private void run() {
+        while (running) {
+            if (pending.get() == null) {
+                LockSupport.park(this);
+                continue;
+            }
+            long deadline = System.nanoTime() + LINGER_NANOS;
+            for (long left = LINGER_NANOS; left > 0 && running; left = deadline - System.nanoTime()) {
+                LockSupport.parkNanos(this, left);
+            }
+            writePending(false);
+        }
+        writePending(true);
+    }
+
+    private void writePending(boolean closing) {
+        Balance next = pending.getAndSet(null);
+        if (next == null && closing) {
+            next = failed;
+        }
+        if (next == null || next.same(written)) {
+            return;
+        }
+        try {
+            write(file, next.balance, next.highScore);
+            written = next;
+            writes++;
+            failed = null;
+        } catch (IOException e) {
+            if (failed == null) {
+                e.printStackTrace(); // once until a write succeeds again
+            }
+            failed = next;
+        }
+    }
+
+    // Replaces file atomically with the two lines GameManager.loadBalance reads; blocks until on disk
+    public static void write(Path file, long balance, long highScore) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        ByteBuffer bytes = ByteBuffer.wrap((balance + "\n" + highScore).getBytes(StandardCharsets.US_ASCII));
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(true);
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Writes what is pending and stops the writer thread
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,459 @@
+package com.kristautas2.ridethebus.core.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// Per-round history stored column by column: one file of little-endian primitives per column, so a
+// query reads only the columns it needs and months of rounds never have to fit on the heap. Rows are
+// buffered and appended in batches at the end of each file; old data is never rewritten. The meta file
+// holds the number of committed rows and is only updated once the columns are forced to disk, so a crash
+// loses at most the rows of the last batch; should the count still be ahead of a column, open() keeps
+// the rows every column holds. Queries map the column files a window at a time, copy each chunk into
+// primitive arrays with a bulk get, and filter and sum in plain array loops the JIT can vectorise.
+// One writer; queries may run on any thread and see the rows committed when they start.
+public final class HistoryStore implements Closeable {
+    public static final long DAY_MILLIS = 86_400_000L;
+
+    public enum Column {
+        BET("bet", 4),
+        STAGE("stage", 1),       // stages won before the round ended
+        CASH_OUT("cash-out", 1), // stage the winnings were collected at; 0 if the round was lost
+        PAYOUT("payout", 4),     // paid back to the balance, 0 if lost
+        TIME("time", 8);         // epoch milliseconds at the end of the round
+
+        private final String name;
+        private final int width;
+
+        Column(String name, int width) {
+            this.name = name;
+            this.width = width;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+    }
+
+    private static final Column[] COLUMNS = Column.values();
+    private static final int MAGIC = 0x52544248; // "RTBH"
+    private static final int VERSION = 1;
+    private static final String META = "history.meta";
+    private static final int BATCH = 4096;       // rows buffered before they are appended
+    private static final int WINDOW = 1 << 20;   // rows mapped at a time by a query
+    private static final int CHUNK = 1 << 12;    // rows copied into arrays at a time
+
+    private final Path directory;
+    private final FileChannel meta;
+    private final FileChannel[] files = new FileChannel[COLUMNS.length];
+    private final ByteBuffer[] pending = new ByteBuffer[COLUMNS.length];
+    private volatile long committed;
+    private int buffered;
+
+    private HistoryStore(Path directory, FileChannel meta) {
+        this.directory = directory;
+        this.meta = meta;
+    }
+
+    // Opens the store in directory, creating it if needed; rows past the committed count are dropped
+    public static HistoryStore open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        FileChannel meta = FileChannel.open(directory.resolve(META), StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        HistoryStore store = new HistoryStore(directory, meta);
+        try {
+            store.load();
+        } catch (IOException | RuntimeException e) {
+            store.close();
+            throw e;
+        }
+        return store;
+    }
+
+    private void load() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(16);
+        if (meta.size() == 0) {
+            header.putInt(MAGIC).putInt(VERSION).putLong(0).flip();
+            writeFully(meta, header, 0);
+        } else {
+            readFully(meta, header, 0);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("Not a history store: " + directory);
+            }
+            committed = header.getLong(8);
+        }
+        long complete = committed;
+        for (Column column : COLUMNS) {
+            FileChannel file = FileChannel.open(file(column), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+            files[column.ordinal()] = file;
+            complete = Math.min(complete, file.size() / column.width);
+            pending[column.ordinal()] = ByteBuffer.allocate(BATCH * column.width).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        if (complete < committed) {
+            System.err.println("History in " + directory + " lost " + (committed - complete) + " rows; keeping "
+                + complete);
+            committed = complete;
+            writeCount(committed);
+            meta.force(false);
+        }
+        for (Column column : COLUMNS) {
+            files[column.ordinal()].truncate(committed * column.width);
+        }
+    }
+
+    private Path file(Column column) {
+        return directory.resolve(column.name + ".col");
+    }
+
+    // One round; written with the next full batch, flush() or close()
+    public void append(int bet, int stage, int cashOut, int payout, long time) throws IOException {
+        pending[Column.BET.ordinal()].putInt(bet);
+        pending[Column.STAGE.ordinal()].put((byte) stage);
+        pending[Column.CASH_OUT.ordinal()].put((byte) cashOut);
+        pending[Column.PAYOUT.ordinal()].putInt(payout);
+        pending[Column.TIME.ordinal()].putLong(time);
+        if (++buffered == BATCH) {
+            flush();
+        }
+    }
+
+    // Appends the buffered rows to the column files, forces them, then commits them in the meta file
+    public void flush() throws IOException {
+        if (buffered == 0) {
+            return;
+        }
+        for (Column column : COLUMNS) {
+            ByteBuffer buffer = pending[column.ordinal()];
+            buffer.flip();
+            writeFully(files[column.ordinal()], buffer, committed * column.width);
+            buffer.clear();
+        }
+        for (FileChannel file : files) {
+            file.force(false); // the rows must be on disk before the count that commits them
+        }
+        writeCount(committed + buffered);
+        committed += buffered;
+        buffered = 0;
+    }
+
+    private void writeCount(long rows) throws IOException {
+        ByteBuffer count = ByteBuffer.allocate(8);
+        count.putLong(0, rows);
+        writeFully(meta, count, 8);
+    }
+
+    // Committed rows, the ones queries see
+    public long rows() {
+        return committed;
+    }
+
+    public Query query() {
+        return new Query();
+    }
+
+    // Rows filtered by value ranges, then aggregated over all of them or per bucket of a column
+    public final class Query {
+        private final long[] from = new long[COLUMNS.length];
+        private final long[] to = new long[COLUMNS.length];
+        private final boolean[] filtered = new boolean[COLUMNS.length];
+
+        private Query() {
+        }
+
+        // Only rows with from <= column < to; calls on the same column narrow the range
+        public Query where(Column column, long from, long to) {
+            int c = column.ordinal();
+            this.from[c] = filtered[c] ? Math.max(this.from[c], from) : from;
+            this.to[c] = filtered[c] ? Math.min(this.to[c], to) : to;
+            filtered[c] = true;
+            return this;
+        }
+
+        // Every matching row as one group
+        public Group total() throws IOException {
+            List<Group> groups = groupBy(Column.BET, Long.MAX_VALUE);
+            return groups.isEmpty() ? new Group(0, 0, 0, new long[COLUMNS.length]) : groups.get(0);
+        }
+
+        // One group per bucket of width values of column (e.g. TIME by DAY_MILLIS), in bucket order,
+        // leaving out empty buckets
+        public List<Group> groupBy(Column key, long width) throws IOException {
+            if (width <= 0) {
+                throw new IllegalArgumentException("Bucket width must be greater than 0");
+            }
+            Buckets buckets = new Buckets();
+            long[][] values = new long[COLUMNS.length][CHUNK];
+            boolean[] keep = new boolean[CHUNK];
+            scan(values, keep, key.ordinal(), width, buckets);
+            return buckets.groups(width);
+        }
+
+        private void scan(long[][] values, boolean[] keep, int key, long width, Buckets buckets) throws IOException {
+            long rows = committed;
+            int[] ints = new int[CHUNK];
+            byte[] bytes = new byte[CHUNK];
+            for (long window = 0; window < rows; window += WINDOW) {
+                int windowRows = (int) Math.min(WINDOW, rows - window);
+                ByteBuffer[] mapped = new ByteBuffer[COLUMNS.length];
+                for (Column column : COLUMNS) {
+                    mapped[column.ordinal()] = map(column, window, windowRows);
+                }
+                for (int chunk = 0; chunk < windowRows; chunk += CHUNK) {
+                    int n = Math.min(CHUNK, windowRows - chunk);
+                    for (Column column : COLUMNS) {
+                        read(mapped[column.ordinal()], column, chunk, n, values[column.ordinal()], ints, bytes);
+                    }
+                    Arrays.fill(keep, 0, n, true);
+                    for (int c = 0; c < COLUMNS.length; c++) {
+                        if (filtered[c]) {
+                            long[] v = values[c];
+                            long lo = from[c];
+                            long hi = to[c];
+                            for (int i = 0; i < n; i++) {
+                                keep[i] &= v[i] >= lo & v[i] < hi;
+                            }
+                        }
+                    }
+                    buckets.add(values, keep, n, values[key], width);
+                }
+            }
+        }
+    }
+
+    private ByteBuffer map(Column column, long firstRow, int rows) throws IOException {
+        MappedByteBuffer buffer = files[column.ordinal()].map(FileChannel.MapMode.READ_ONLY,
+            firstRow * column.width, (long) rows * column.width);
+        return buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // Bulk-copies rows [first, first + n) of a mapped window into values, widened to long
+    private static void read(ByteBuffer mapped, Column column, int first, int n, long[] values, int[] ints, byte[] bytes) {
+        switch (column.width) {
+            case 1: {
+                ByteBuffer view = mapped.duplicate();
+                view.position(first);
+                view.get(bytes, 0, n);
+                for (int i = 0; i < n; i++) {
+                    values[i] = bytes[i];
+                }
+                break;
+            }
+            case 4: {
+                ByteBuffer view = mapped.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+                view.position(first * 4);
+                view.asIntBuffer().get(ints, 0, n);
+                for (int i = 0; i < n; i++) {
+                    values[i] = ints[i];
+                }
+                break;
+            }
+            default: {
+                ByteBuffer view = mapped.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+                view.position(first * 8);
+                view.asLongBuffer().get(values, 0, n);
+            }
+        }
+    }
+
+    // Dense per-bucket sums over the range of buckets seen so far, grown as new buckets turn up
+    private static final class Buckets {
+        private static final int MAX_BUCKETS = 1 << 20;
+
+        private long base;
+        private int used; // buckets base to base + used - 1; the arrays grow by doubling
+        private long[] rows = new long[0];
+        private long[] wins = new long[0];
+        private long[][] sums = new long[COLUMNS.length][0];
+
+        void add(long[][] values, boolean[] keep, int n, long[] key, long width) {
+            long[] payout = values[Column.PAYOUT.ordinal()];
+            for (int i = 0; i < n; i++) {
+                if (!keep[i]) {
+                    continue;
+                }
+                int b = slot(Math.floorDiv(key[i], width));
+                rows[b]++;
+                wins[b] += payout[i] > 0 ? 1 : 0;
+                for (int c = 0; c < COLUMNS.length; c++) {
+                    sums[c][b] += values[c][i];
+                }
+            }
+        }
+
+        private int slot(long bucket) {
+            if (used == 0) {
+                base = bucket;
+                grow(0, 1);
+            } else if (bucket < base) {
+                grow(base - bucket, used + (base - bucket));
+                base = bucket;
+            } else if (bucket - base >= used) {
+                grow(0, bucket - base + 1);
+            }
+            return (int) (bucket - base);
+        }
+
+        private void grow(long shift, long size) {
+            if (size > MAX_BUCKETS) {
+                throw new IllegalArgumentException("More than " + MAX_BUCKETS + " buckets; use a wider bucket");
+            }
+            if (shift > 0 || size > rows.length) {
+                int capacity = (int) Math.min(Math.max(size, 2L * rows.length), MAX_BUCKETS);
+                rows = grown(rows, (int) shift, capacity);
+                wins = grown(wins, (int) shift, capacity);
+                for (int c = 0; c < sums.length; c++) {
+                    sums[c] = grown(sums[c], (int) shift, capacity);
+                }
+            }
+            used = (int) size;
+        }
+
+        private static long[] grown(long[] array, int shift, int capacity) {
+            long[] copy = new long[capacity];
+            System.arraycopy(array, 0, copy, shift, Math.min(array.length, capacity - shift));
+            return copy;
+        }
+
+        List<Group> groups(long width) {
+            List<Group> groups = new ArrayList<>();
+            for (int b = 0; b < used; b++) {
+                if (rows[b] > 0) {
+                    long[] total = new long[COLUMNS.length];
+                    for (int c = 0; c < COLUMNS.length; c++) {
+                        total[c] = sums[c][b];
+                    }
+                    groups.add(new Group(width == Long.MAX_VALUE ? 0 : (base + b) * width, rows[b], wins[b], total));
+                }
+            }
+            return Collections.unmodifiableList(groups);
+        }
+    }
+
+    // Aggregates of one bucket: its first value, the rows in it, the rows that paid anything, and sums
+    public static final class Group {
+        private final long key;
+        private final long rows;
+        private final long wins;
+        private final long[] sums;
+
+        Group(long key, long rows, long wins, long[] sums) {
+            this.key = key;
+            this.rows = rows;
+            this.wins = wins;
+            this.sums = sums;
+        }
+
+        public long getKey() {
+            return key;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getWins() {
+            return wins;
+        }
+
+        public double getWinRate() {
+            return rows == 0 ? 0.0 : (double) wins / rows;
+        }
+
+        public long getSum(Column column) {
+            return sums[column.ordinal()];
+        }
+
+        public double getMean(Column column) {
+            return rows == 0 ? 0.0 : (double) sums[column.ordinal()] / rows;
+        }
+
+        // Mean stage collected at, over the rounds that paid (CASH_OUT is 0 for the others)
+        public double getMeanCashOut() {
+            return wins == 0 ? 0.0 : (double) sums[Column.CASH_OUT.ordinal()] / wins;
+        }
+
+        // Paid back per unit bet
+        public double getReturn() {
+            long bet = sums[Column.BET.ordinal()];
+            return bet == 0 ? 0.0 : (double) sums[Column.PAYOUT.ordinal()] / bet;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d: %d rounds, win rate %.4f, mean cash-out stage %.2f, return %.4f", key, rows,
+                getWinRate(), getMeanCashOut(), getReturn());
+        }
+    }
+
+    // Writes what is buffered and closes the files
+    @Override
+    public void close() throws IOException {
+        try {
+            if (files[COLUMNS.length - 1] != null) {
+                flush();
+                meta.force(false);
+            }
+        } finally {
+            for (FileChannel file : files) {
+                if (file != null) {
+                    file.close();
+                }
+            }
+            meta.close();
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+        buffer.flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    // Win rate by bet and mean cash-out stage per day (UTC) of a history directory
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(args.length > 0 ? args[0] : "assets/gameData/history");
+        long betBucket = args.length > 1 ? Long.parseLong(args[1]) : 10;
+
+        try (HistoryStore history = open(directory)) {
+            long start = System.nanoTime();
+            System.out.println("All rounds: " + history.query().total());
+            System.out.println("By bet, buckets of " + betBucket + ":");
+            for (Group group : history.query().groupBy(Column.BET, betBucket)) {
+                System.out.println("  " + group);
+            }
+            System.out.println("By day:");
+            for (Group group : history.query().groupBy(Column.TIME, DAY_MILLIS)) {
+                System.out.printf("  %s: %d rounds, mean cash-out stage %.2f%n",
+                    Instant.ofEpochMilli(group.getKey()).toString().substring(0, 10), group.getRows(),
+                    group.getMeanCashOut());
+            }
+            System.out.printf("(%d rows, %.2f s)%n", history.rows(), (System.nanoTime() - start) / 1e9);
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package com.kristautas2.ridethebus.core.store;
+
+import com.kristautas2.ridethebus.core.logic.GameManager;
+import com.kristautas2.ridethebus.core.logic.GameSnapshot;
+import com.kristautas2.ridethebus.core.logic.RuleVariant;
+import com.kristautas2.ridethebus.core.model.DealOrder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Proves a RoundJournal against the rules: every recorded round is dealt again from its shuffle seed and
+// played again, guess by guess, through GameSnapshot (the same transitions as GameManager) under the rule
+// variant named in its segment. A round passes only if every recorded card is the card the shuffle deals
+// at that point, it ends the way it was recorded, and it pays exactly the recorded balance delta.
+// Segments decode independently, so they are verified in parallel, each read in place from a read-only
+// mapping of its file.
+public final class JournalVerifier {
+    private static final long REPLAY_BALANCE = 1L << 40; // enough for any bet; never reaches LOST
+    private static final int MAX_REPORTED = 20;          // mismatches kept with their details
+
+    // What a verification found; mergeable in segment order
+    public static final class Report {
+        private long segments;
+        private long rounds;
+        private long bytes;
+        private final long[] ends = new long[RoundJournal.WON + 1];
+        private long wagered;
+        private long paidOut;
+        private long mismatches;
+        private final List<String> details = new ArrayList<>();
+
+        private void mismatch(Path segment, int offset, String reason) {
+            mismatches++;
+            if (details.size() < MAX_REPORTED) {
+                details.add(segment.getFileName() + " @" + offset + ": " + reason);
+            }
+        }
+
+        Report merge(Report other) {
+            segments += other.segments;
+            rounds += other.rounds;
+            bytes += other.bytes;
+            for (int i = 0; i < ends.length; i++) {
+                ends[i] += other.ends[i];
+            }
+            wagered += other.wagered;
+            paidOut += other.paidOut;
+            mismatches += other.mismatches;
+            for (String detail : other.details) {
+                if (details.size() < MAX_REPORTED) {
+                    details.add(detail);
+                }
+            }
+            return this;
+        }
+
+        public boolean isValid() {
+            return mismatches == 0;
+        }
+
+        public long getSegments() {
+            return segments;
+        }
+
+        public long getRounds() {
+            return rounds;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        // Rounds that ended RoundJournal.LOST, COLLECTED or WON
+        public long getEnded(int end) {
+            return ends[end];
+        }
+
+        public long getWagered() {
+            return wagered;
+        }
+
+        public long getPaidOut() {
+            return paidOut;
+        }
+
+        public long getMismatches() {
+            return mismatches;
+        }
+
+        // The first mismatches found, with segment and byte offset
+        public List<String> getDetails() {
+            return Collections.unmodifiableList(details);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            text.append(String.format("%d rounds in %d segments (%.1f MB): %d lost, %d collected, %d won%n",
+                rounds, segments, bytes / 1e6, ends[RoundJournal.LOST], ends[RoundJournal.COLLECTED],
+                ends[RoundJournal.WON]));
+            text.append(String.format("Wagered %d, paid out %d, return %.4f%n", wagered, paidOut,
+                wagered == 0 ? 0.0 : (double) paidOut / wagered));
+            text.append(mismatches == 0 ? "All rounds verified" : mismatches + " MISMATCHES");
+            for (String detail : details) {
+                text.append(String.format("%n  ")).append(detail);
+            }
+            return text.toString();
+        }
+    }
+
+    private final Map<String, RuleVariant> variants = new HashMap<>();
+    private final ForkJoinPool pool;
+
+    // The variants the journal may have been recorded under, by name (see RuleVariant.loadAll)
+    public JournalVerifier(Collection<RuleVariant> variants) {
+        this(variants, ForkJoinPool.commonPool());
+    }
+
+    public JournalVerifier(Collection<RuleVariant> variants, ForkJoinPool pool) {
+        for (RuleVariant variant : variants) {
+            this.variants.put(variant.getName(), variant);
+        }
+        this.pool = pool;
+    }
+
+    // Verifies every segment of a journal directory
+    public Report verify(Path directory) throws IOException {
+        return verify(RoundJournal.segments(directory));
+    }
+
+    public Report verify(List<Path> segments) throws IOException {
+        try {
+            return pool.invoke(new SegmentTask(segments, 0, segments.size()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class SegmentTask extends RecursiveTask<Report> {
+        private final List<Path> segments;
+        private final int from;
+        private final int to;
+
+        SegmentTask(List<Path> segments, int from, int to) {
+            this.segments = segments;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Report compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                SegmentTask second = new SegmentTask(segments, middle, to);
+                second.fork();
+                Report report = new SegmentTask(segments, from, middle).compute();
+                return report.merge(second.join());
+            }
+            Report report = new Report();
+            if (from < to) {
+                try {
+                    verifySegment(segments.get(from), report);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return report;
+        }
+    }
+
+    private void verifySegment(Path file, Report report) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        report.segments++;
+        if (buffer.limit() < RoundJournal.HEADER || buffer.getInt(0) != RoundJournal.MAGIC
+            || buffer.getInt(4) != RoundJournal.VERSION) {
+            report.mismatch(file, 0, "not a journal segment");
+            return;
+        }
+        int nameLength = buffer.getShort(16);
+        if (nameLength < 0 || nameLength > RoundJournal.MAX_NAME_BYTES) {
+            report.mismatch(file, 16, "variant name of " + nameLength + " bytes");
+            return;
+        }
+        byte[] name = new byte[nameLength];
+        for (int i = 0; i < nameLength; i++) {
+            name[i] = buffer.get(18 + i);
+        }
+        RuleVariant variant = variants.get(new String(name, StandardCharsets.UTF_8));
+        if (variant == null) {
+            report.mismatch(file, 0, "recorded under unknown rule variant " + new String(name, StandardCharsets.UTF_8));
+            return;
+        }
+        new Scan(file, buffer, variant, report).run();
+    }
+
+    // Decodes and replays one segment, reading the mapped buffer in place with absolute gets. Every read is
+    // checked against the end of the segment: corrupt lengths are reported as mismatches, never thrown.
+    private static final class Scan {
+        private static final String OVERRUN = "record runs past the end of the segment";
+
+        private final Path file;
+        private final ByteBuffer buffer;
+        private final RuleVariant variant;
+        private final Report report;
+        private final DealOrder template;
+        private final int limit;
+        private int position;
+        private boolean overrun; // a varint ran past the limit or over 64 bits
+
+        Scan(Path file, ByteBuffer buffer, RuleVariant variant, Report report) {
+            this.file = file;
+            this.buffer = buffer;
+            this.variant = variant;
+            this.report = report;
+            this.template = DealOrder.shuffled(variant.getCards(), 0);
+            this.limit = buffer.limit();
+        }
+
+        void run() {
+            long seed = 0;
+            DealOrder deal = null;
+            int expectedStart = 0;
+            position = RoundJournal.HEADER;
+            while (position < limit) {
+                int record = position;
+                int flags = buffer.get(position++) & 0xFF;
+                if (flags == 0) {
+                    break;
+                }
+                int end = flags >>> RoundJournal.END_SHIFT & RoundJournal.END_MASK;
+                boolean newShuffle = (flags & RoundJournal.NEW_SHUFFLE) != 0;
+                if (newShuffle) {
+                    if (limit - position < 8) {
+                        report.mismatch(file, record, OVERRUN);
+                        return;
+                    }
+                    long recorded = buffer.getLong(position);
+                    position += 8;
+                    if (deal == null || recorded != seed) {
+                        seed = recorded;
+                        deal = template.reshuffle(seed);
+                    }
+                    expectedStart = 0;
+                } else if (deal == null) {
+                    report.mismatch(file, record, "round without a shuffle seed");
+                    return;
+                }
+                int start = (int) (expectedStart + RoundJournal.unzigzag(readVarint()));
+                int bet = (int) readVarint();
+                long delta = RoundJournal.unzigzag(readVarint());
+                long guessCount = flags & RoundJournal.COUNT_MASK;
+                if (guessCount == RoundJournal.COUNT_MASK) {
+                    guessCount = readVarint();
+                }
+                if (overrun || guessCount < 0 || guessCount > limit - position) {
+                    report.mismatch(file, record, OVERRUN);
+                    return;
+                }
+                int count = (int) guessCount;
+                int guesses = position;
+                position += count;
+                expectedStart = start + count;
+                report.rounds++;
+                report.ends[end]++;
+                report.wagered += bet;
+                report.paidOut += bet + delta;
+                String failure = replay(deal, seed, start, bet, delta, end, guesses, count);
+                if (failure != null) {
+                    report.mismatch(file, record, failure);
+                }
+            }
+            report.bytes += position;
+        }
+
+        // Plays the round again; null if it matches the record, otherwise what did not
+        private String replay(DealOrder deal, long seed, int start, int bet, long delta, int end, int guesses, int count) {
+            if (end < RoundJournal.LOST) {
+                return "no round end recorded";
+            }
+            GameSnapshot game;
+            try {
+                game = GameSnapshot.atRound(variant, deal, seed, start, REPLAY_BALANCE).placeBet(bet);
+                for (int i = 0; i < count; i++) {
+                    int guess = buffer.get(guesses + i) & 0xFF;
+                    if (!game.isGuessing()) {
+                        return "guess " + (i + 1) + " after the round was over";
+                    }
+                    if (game.getPosition() == deal.size()) {
+                        return "guess " + (i + 1) + " past the end of the shoe";
+                    }
+                    int card = deal.card(game.getPosition()).getId();
+                    if ((guess & 0x3F) != card) {
+                        return "guess " + (i + 1) + " recorded card " + (guess & 0x3F) + ", shuffle deals " + card;
+                    }
+                    game = game.guess(guess >>> 6);
+                }
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                return e.getMessage();
+            }
+            int replayedEnd;
+            if (game.getStage() == variant.stages()) {
+                replayedEnd = RoundJournal.WON;
+            } else if (game.isGuessing()) {
+                replayedEnd = RoundJournal.COLLECTED;
+                game = game.collect();
+            } else if (game.getState() == GameManager.GameState.GAME_OVER) {
+                replayedEnd = RoundJournal.LOST;
+            } else {
+                return "replay ended in state " + game.getState();
+            }
+            if (replayedEnd != end) {
+                return "recorded end " + end + ", replay ends " + replayedEnd;
+            }
+            long replayedDelta = game.getBalance() - REPLAY_BALANCE;
+            if (replayedDelta != delta) {
+                return "recorded balance delta " + delta + ", replay pays " + replayedDelta;
+            }
+            return null;
+        }
+
+        // 0 and overrun set if the varint does not end within the segment and 64 bits
+        private long readVarint() {
+            long value = 0;
+            for (int shift = 0; shift < 64 && position < limit; shift += 7) {
+                byte b = buffer.get(position++);
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            overrun = true;
+            return 0;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path journal = Paths.get(args.length > 0 ? args[0] : "assets/gameData/journal");
+        Path variantDirectory = Paths.get(args.length > 1 ? args[1] : "assets/gameData/variants");
+        List<RuleVariant> variants = new ArrayList<>();
+        variants.add(RuleVariant.CLASSIC);
+        variants.addAll(RuleVariant.loadAll(variantDirectory)); // a variant file overrides the built-in of its name
+
+        long start = System.nanoTime();
+        Report report = new JournalVerifier(variants).verify(journal);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println(report);
+        System.out.printf("(%.2f s, %.1f M rounds/min)%n", seconds, report.getRounds() / seconds * 60 / 1e6);
+        if (!report.isValid()) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.kristautas2.ridethebus.core.store;
+
+import com.kristautas2.ridethebus.core.model.Player;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Many player profiles in one binary file of fixed-size records, for kiosks that rotate through
+// hundreds of them. A header says how many records are valid; the profile id -> slot index is a hash
+// map rebuilt from the ids when the file is opened. Saving a profile is one positional write of its
+// 128-byte record, whatever the number of profiles. A new profile's record is written before the
+// header count that makes it valid, so a crash mid-append loses that profile, not the file.
+// Loads may come from any thread; saves are serialized, and a profile should be saved from one place.
+public final class PlayerStore implements Closeable {
+    private static final int MAGIC = 0x52544253; // "RTBS"; "RTBP" is PolicyTable's
+    private static final int VERSION = 1;
+    private static final int HEADER = 64;        // magic, version, record size, record count, then reserved
+    private static final int COUNT_OFFSET = 12;
+    private static final int RECORD = 128;
+    public static final int MAX_ID_BYTES = 47;   // UTF-8, after a length byte
+    static final int MAX_RECORDS = (Integer.MAX_VALUE - HEADER) / RECORD; // the index is read in one buffer
+
+    // Record layout; bytes 112-127 are reserved and written as zero
+    private static final int BALANCE = 48;
+    private static final int HIGH_SCORE = 56;
+    private static final int DEFAULT_BET = 64;
+    private static final int RESTARTS = 68;
+    private static final int ROUNDS = 72;
+    private static final int PAID_ROUNDS = 80;
+    private static final int WAGERED = 88;
+    private static final int PAID_OUT = 96;
+    private static final int BIGGEST_WIN = 104;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final Map<String, Integer> index = new ConcurrentHashMap<>(); // profile id -> slot
+    private int count;
+
+    private PlayerStore(Path file, FileChannel channel) {
+        this.file = file;
+        this.channel = channel;
+    }
+
+    // Opens the store, creating an empty one if the file does not exist
+    public static PlayerStore open(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        PlayerStore store = new PlayerStore(file, channel);
+        try {
+            if (channel.size() == 0) {
+                store.writeHeader();
+            } else {
+                store.readIndex();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return store;
+    }
+
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        header.putInt(MAGIC).putInt(VERSION).putInt(RECORD).putInt(0);
+        header.clear();
+        writeFully(header, 0);
+        channel.force(true);
+    }
+
+    private void readIndex() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        readFully(header, 0);
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || header.getInt(8) != RECORD) {
+            throw new IOException("Not a player store: " + file);
+        }
+        int records = header.getInt(COUNT_OFFSET);
+        if (records > MAX_RECORDS) {
+            throw new IOException("Player store claims " + records + " profiles, at most " + MAX_RECORDS + ": " + file);
+        }
+        if (records < 0 || HEADER + (long) records * RECORD > channel.size()) {
+            throw new IOException("Player store truncated: " + file);
+        }
+        ByteBuffer all = ByteBuffer.allocate(records * RECORD);
+        readFully(all, HEADER);
+        for (int slot = 0; slot < records; slot++) {
+            index.put(readId(all, slot * RECORD), slot);
+        }
+        count = records;
+    }
+
+    public boolean contains(String id) {
+        return index.containsKey(id);
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    // Every stored profile id, in the order they were created
+    public synchronized List<String> profiles() {
+        String[] ids = new String[count];
+        for (Map.Entry<String, Integer> entry : index.entrySet()) {
+            ids[entry.getValue()] = entry.getKey();
+        }
+        List<String> profiles = new ArrayList<>(ids.length);
+        for (String id : ids) {
+            if (id != null) {
+                profiles.add(id);
+            }
+        }
+        return Collections.unmodifiableList(profiles);
+    }
+
+    // The stored profile, or a new player (not stored until saved) if there is none
+    public Player load(String id) throws IOException {
+        Player player = new Player();
+        Integer slot = index.get(id);
+        if (slot == null) {
+            player.setHighScore((int) player.getBalance());
+            return player;
+        }
+        ByteBuffer record = ByteBuffer.allocate(RECORD);
+        readFully(record, offset(slot));
+        player.restore(record.getLong(BALANCE), 0, 0, record.getLong(HIGH_SCORE), record.getInt(DEFAULT_BET));
+        player.restoreStats(record.getLong(ROUNDS), record.getLong(PAID_ROUNDS), record.getLong(WAGERED),
+            record.getLong(PAID_OUT), record.getLong(BIGGEST_WIN), record.getInt(RESTARTS));
+        return player;
+    }
+
+    // Writes the profile's record in place, appending it if the id is new. Not forced to disk; see force().
+    public synchronized void save(String id, Player player) throws IOException {
+        byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+        if (idBytes.length == 0 || idBytes.length > MAX_ID_BYTES) {
+            throw new IllegalArgumentException("Profile id must be 1 to " + MAX_ID_BYTES + " UTF-8 bytes: " + id);
+        }
+        ByteBuffer record = ByteBuffer.allocate(RECORD);
+        record.put((byte) idBytes.length).put(idBytes);
+        record.putLong(BALANCE, player.getBalance());
+        record.putLong(HIGH_SCORE, player.getHighScore());
+        record.putInt(DEFAULT_BET, player.defaultBet);
+        record.putInt(RESTARTS, player.getRestarts());
+        record.putLong(ROUNDS, player.getRounds());
+        record.putLong(PAID_ROUNDS, player.getPaidRounds());
+        record.putLong(WAGERED, player.getWagered());
+        record.putLong(PAID_OUT, player.getPaidOut());
+        record.putLong(BIGGEST_WIN, player.getBiggestWin());
+        record.clear();
+
+        Integer slot = index.get(id);
+        if (slot != null) {
+            writeFully(record, offset(slot));
+            return;
+        }
+        if (count == MAX_RECORDS) {
+            throw new IllegalStateException("Player store is full: " + file);
+        }
+        writeFully(record, offset(count));
+        channel.force(false); // the record must be on disk before the count that makes it valid
+        ByteBuffer header = ByteBuffer.allocate(4);
+        header.putInt(0, count + 1);
+        writeFully(header, COUNT_OFFSET);
+        index.put(id, count);
+        count++;
+    }
+
+    // Flushes every saved record to the disk
+    public void force() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            channel.force(true);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private static long offset(int slot) {
+        return HEADER + (long) slot * RECORD;
+    }
+
+    private static String readId(ByteBuffer records, int start) {
+        int length = records.get(start) & 0xFF;
+        return new String(records.array(), start + 1, length, StandardCharsets.UTF_8);
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of " + file);
+            }
+        }
+        buffer.flip();
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+}
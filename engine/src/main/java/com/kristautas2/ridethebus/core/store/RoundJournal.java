@@ -0,0 +1,300 @@
+package com.kristautas2.ridethebus.core.store;
+
+import com.kristautas2.ridethebus.core.model.Card;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+// Append-only audit trail of every round played, in memory-mapped segment files of a fixed size.
+// A round is buffered in a small scratch array while it is played and copied into the mapped segment
+// when it ends, so an append is a few stores into memory: no allocation, no system call, no lock. When a
+// segment is full the journal switches to a spare that a background thread has already created and
+// mapped; only if the spare is not ready yet (a burst faster than the disk) does the caller wait for
+// it, which getStalls() counts.
+//
+// Segment: a HEADER-byte header (magic, version, segment number, variant name), then records, then zeros.
+// Record:
+//   byte    flags: guess count (bits 0-4, 31 = varint count follows), end (bits 5-6: LOST, COLLECTED,
+//           WON), new shuffle (bit 7); never 0, so the first zero byte ends the segment
+//   [long   shuffle seed, if a new shuffle; otherwise the seed of the previous record]
+//   varint  zigzag(round start - expected start), expected being where the previous round on the same
+//           shuffle ended (0 on a new shuffle)
+//   varint  bet
+//   varint  zigzag(balance delta), i.e. paid out - bet
+//   byte    per guess: choice << 6 | card id of the card that answered it
+// The delta state restarts with every segment, so each segment decodes on its own.
+// The flags byte is written after the rest of the record, so a reader never sees half a round.
+// Single writer: call it from the thread that plays the rounds.
+public final class RoundJournal implements Closeable {
+    public static final long DEFAULT_SEGMENT_SIZE = 64L << 20;
+
+    static final int MAGIC = 0x52544A4C; // "RTJL"
+    static final int VERSION = 1;
+    static final int HEADER = 128;
+    static final int MAX_NAME_BYTES = HEADER - 18;
+    static final String SUFFIX = ".journal";
+
+    // How a round ended
+    public static final int LOST = 1;
+    public static final int COLLECTED = 2;
+    public static final int WON = 3;
+
+    static final int COUNT_MASK = 0x1F;
+    static final int END_SHIFT = 5;
+    static final int END_MASK = 0x3;
+    static final int NEW_SHUFFLE = 0x80;
+
+    private static final int MAX_RECORD = 64; // everything but the guesses beyond the first 31
+    private static final long STALL_NANOS = 10_000;
+
+    private final Path directory;
+    private final String variantName;
+    private final int segmentSize;
+    private final AtomicReference<MappedByteBuffer> spare = new AtomicReference<>();
+    private final Thread mapper;
+    private volatile boolean running = true;
+    private volatile IOException mapperFailure;
+
+    private MappedByteBuffer segment;
+    private long segmentNumber; // of the current segment; the spare is the next one
+    // Delta state of the current segment
+    private boolean hasSeed;
+    private long lastSeed;
+    private int expectedStart;
+
+    // The round being played
+    private boolean open;
+    private long seed;
+    private int roundStart;
+    private int bet;
+    private byte[] guesses = new byte[32];
+    private int guessCount;
+    private final byte[] scratch = new byte[MAX_RECORD];
+
+    private long rounds;
+    private long stalls;
+
+    // Starts a new segment after any already in directory
+    public RoundJournal(Path directory, String variantName) throws IOException {
+        this(directory, variantName, DEFAULT_SEGMENT_SIZE);
+    }
+
+    public RoundJournal(Path directory, String variantName, long segmentSize) throws IOException {
+        if (segmentSize < HEADER + MAX_RECORD + 32 || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment size out of range: " + segmentSize);
+        }
+        if (variantName.getBytes(StandardCharsets.UTF_8).length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("Variant name too long: " + variantName);
+        }
+        Files.createDirectories(directory);
+        this.directory = directory;
+        this.variantName = variantName;
+        this.segmentSize = (int) segmentSize;
+        List<Path> existing = segments(directory);
+        this.segmentNumber = existing.isEmpty() ? 0 : number(existing.get(existing.size() - 1)) + 1;
+        this.segment = map(segmentNumber);
+        this.mapper = new Thread(this::prepareSpares, "journal-mapper");
+        mapper.setDaemon(true);
+        mapper.start();
+    }
+
+    // Called when the bet is placed; a round still open (e.g. abandoned by a restore) is dropped
+    public void beginRound(long shuffleSeed, int roundStart, int bet) {
+        this.open = true;
+        this.seed = shuffleSeed;
+        this.roundStart = roundStart;
+        this.bet = bet;
+        this.guessCount = 0;
+    }
+
+    // A guess of the open round and the card that answered it
+    public void guess(int choice, Card card) {
+        if (!open) {
+            return;
+        }
+        if (guessCount == guesses.length) {
+            guesses = Arrays.copyOf(guesses, guesses.length * 2); // only on absurd push streaks
+        }
+        guesses[guessCount++] = (byte) (choice << 6 | card.getId());
+    }
+
+    // Ends the open round (LOST, COLLECTED or WON) with what it paid back, and appends it
+    public void endRound(int end, int paid) {
+        if (!open) {
+            return;
+        }
+        open = false;
+        boolean newShuffle = !hasSeed || seed != lastSeed;
+        int length = 1;
+        if (newShuffle) {
+            long s = seed;
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                scratch[length++] = (byte) (s >>> shift);
+            }
+        }
+        length = putVarint(scratch, length, zigzag(roundStart - (newShuffle ? 0 : expectedStart)));
+        length = putVarint(scratch, length, bet);
+        length = putVarint(scratch, length, zigzag((long) paid - bet));
+        int count = Math.min(guessCount, COUNT_MASK);
+        if (count == COUNT_MASK) {
+            length = putVarint(scratch, length, guessCount);
+        }
+        int flags = count | end << END_SHIFT | (newShuffle ? NEW_SHUFFLE : 0);
+
+        if (segment.remaining() < length + guessCount) {
+            roll();
+            open = true; // encode it again against the new segment's fresh delta state
+            endRound(end, paid);
+            return;
+        }
+        int start = segment.position();
+        segment.position(start + 1);
+        segment.put(scratch, 1, length - 1);
+        segment.put(guesses, 0, guessCount);
+        segment.put(start, (byte) flags);
+
+        hasSeed = true;
+        lastSeed = seed;
+        expectedStart = roundStart + guessCount;
+        rounds++;
+    }
+
+    private void roll() {
+        MappedByteBuffer next = spare.getAndSet(null);
+        if (next == null) {
+            stalls++;
+            do {
+                if (mapperFailure != null) {
+                    throw new UncheckedIOException(mapperFailure);
+                }
+                LockSupport.unpark(mapper);
+                LockSupport.parkNanos(this, STALL_NANOS);
+            } while ((next = spare.getAndSet(null)) == null);
+        }
+        segmentNumber++;
+        segment = next;
+        hasSeed = false;
+        LockSupport.unpark(mapper);
+    }
+
+    // Keeps the next segment created and mapped; the only thread that creates segments after the first
+    private void prepareSpares() {
+        long next = segmentNumber + 1;
+        while (running) {
+            if (spare.get() == null) {
+                try {
+                    spare.set(map(next++));
+                } catch (IOException e) {
+                    mapperFailure = e;
+                    return;
+                }
+            }
+            LockSupport.park(this);
+        }
+    }
+
+    private MappedByteBuffer map(long number) throws IOException {
+        Path file = directory.resolve(fileName(number));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+            StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            byte[] name = variantName.getBytes(StandardCharsets.UTF_8);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(number).putShort((short) name.length).put(name);
+            buffer.position(HEADER);
+            return buffer;
+        }
+    }
+
+    // Rounds appended since the journal was opened
+    public long getRounds() {
+        return rounds;
+    }
+
+    // Times a full segment found no spare ready and the writer had to map one itself
+    public long getStalls() {
+        return stalls;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    // Writes the mapped pages of the current segment to the disk
+    public void force() {
+        segment.force();
+    }
+
+    // Flushes the current segment and removes the unused spare
+    @Override
+    public void close() throws IOException {
+        running = false;
+        LockSupport.unpark(mapper);
+        try {
+            mapper.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        segment.force();
+        if (spare.getAndSet(null) != null) {
+            Files.deleteIfExists(directory.resolve(fileName(segmentNumber + 1)));
+        }
+        if (mapperFailure != null) {
+            throw mapperFailure;
+        }
+    }
+
+    static String fileName(long number) {
+        return String.format("round-%010d%s", number, SUFFIX);
+    }
+
+    static long number(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring("round-".length(), name.length() - SUFFIX.length()));
+    }
+
+    // The segment files of a journal directory, oldest first
+    public static List<Path> segments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "round-*" + SUFFIX)) {
+            for (Path file : files) {
+                segments.add(file);
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    static long zigzag(long value) {
+        return value << 1 ^ value >> 63;
+    }
+
+    static long unzigzag(long value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    private static int putVarint(byte[] buffer, int offset, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[offset++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        buffer[offset++] = (byte) value;
+        return offset;
+    }
+}
@@ -0,0 +1,26 @@
+package com.kristautas2.ridethebus.core.logic;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+// The variant files the game ships, for tests that need more than RuleVariant.CLASSIC. The build points
+// ridethebus.variants at assets/gameData/variants; run from the project root the default finds it too.
+public final class BundledVariants {
+    public static final Path DIRECTORY = Paths.get(System.getProperty("ridethebus.variants", "assets/gameData/variants"));
+
+    // Two decks dealt to three quarters; higher-lower and inside-outside ties push
+    public static final RuleVariant DOUBLE_DECK_PUSH = load("double-deck-push.properties");
+
+    private BundledVariants() {
+    }
+
+    public static RuleVariant load(String file) {
+        try {
+            return RuleVariant.load(DIRECTORY.resolve(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.kristautas2.ridethebus.core.logic;
+
+import com.kristautas2.ridethebus.core.model.Card;
+import com.kristautas2.ridethebus.core.model.Player;
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+
+public class GameManagerTest {
+    @Test
+    public void secondBetOfARoundIsIgnored() {
+        GameManager game = new GameManager(RuleVariant.CLASSIC, new SplittableRandom(3), new Player());
+        game.startGame(42);
+        game.placeBet(10);
+        game.placeBet(10);
+        assertEquals(90, game.getPlayer().getBalance());
+        assertEquals(10, game.getPlayer().getCurrentBet());
+        assertEquals(GameManager.GameState.GUESS_COLOR, game.getCurrentState());
+    }
+
+    @Test
+    public void bustRestartsThePlayerOnce() {
+        Player player = new Player();
+        player.setBalance(10);
+        GameManager game = new GameManager(RuleVariant.CLASSIC, new SplittableRandom(3), player);
+        game.startGame(42);
+        game.placeBet(10);
+        GameSnapshot snapshot = game.snapshot();
+        Card next = snapshot.getDealOrder().card(snapshot.getPosition());
+        game.guessColor(next.getCardColor() == Card.Color.RED ? Card.Color.BLACK : Card.Color.RED);
+        assertEquals(GameManager.GameState.LOST, game.getCurrentState());
+        assertEquals(100, player.getBalance());
+        assertEquals(1, player.getRestarts());
+        game.startGame();
+        assertEquals(1, player.getRestarts());
+    }
+
+    @Test
+    public void betBeforeTheRoundStartsIsIgnored() {
+        GameManager game = new GameManager(RuleVariant.CLASSIC, new SplittableRandom(3), new Player());
+        game.placeBet(10);
+        assertEquals(100, game.getPlayer().getBalance());
+        assertEquals(GameManager.GameState.START, game.getCurrentState());
+    }
+}
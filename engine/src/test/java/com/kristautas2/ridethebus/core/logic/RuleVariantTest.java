@@ -0,0 +1,140 @@
+package com.kristautas2.ridethebus.core.logic;
+
+import com.kristautas2.ridethebus.core.model.Card;
+import com.kristautas2.ridethebus.core.model.DealOrder;
+import com.kristautas2.ridethebus.core.model.Player;
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RuleVariantTest {
+    private static final RuleVariant PUSH_VARIANT = BundledVariants.DOUBLE_DECK_PUSH;
+
+    @Test
+    public void classicTiesFollowTheirRules() {
+        RuleVariant classic = RuleVariant.CLASSIC;
+        Card five = Card.of(5, Card.Suit.HEARTS);
+        Card ten = Card.of(10, Card.Suit.SPADES);
+        assertEquals(RuleVariant.WIN, classic.outcome(1, 0, null, five, ten));
+        assertEquals(RuleVariant.LOSE, classic.outcome(1, 1, null, five, ten));
+        assertEquals(RuleVariant.LOSE, classic.outcome(1, 0, null, ten, Card.of(10, Card.Suit.CLUBS)));
+        assertEquals(RuleVariant.WIN, classic.outcome(2, 0, five, ten, Card.of(7, Card.Suit.CLUBS)));
+        assertEquals(RuleVariant.WIN, classic.outcome(2, 1, five, ten, Card.of(10, Card.Suit.CLUBS))); // tie is outside
+    }
+
+    @Test
+    public void boundaryPushesOnlyWhenTheVariantSaysSo() {
+        Card five = Card.of(5, Card.Suit.HEARTS);
+        Card ten = Card.of(10, Card.Suit.SPADES);
+        assertEquals(RuleVariant.PUSH, PUSH_VARIANT.outcome(2, 0, five, ten, Card.of(10, Card.Suit.CLUBS)));
+        assertEquals(RuleVariant.PUSH, PUSH_VARIANT.outcome(1, 0, null, ten, Card.of(10, Card.Suit.CLUBS)));
+        assertEquals(RuleVariant.WIN, PUSH_VARIANT.outcome(2, 0, five, ten, Card.of(7, Card.Suit.CLUBS)));
+    }
+
+    // [5, 10], a 10 pushes inside-outside, then a 7 must still be judged against 5-10 and win
+    @Test
+    public void pushedCardIsNotContextForTheNextGuess() {
+        long seed = pushThenInside();
+        DealOrder deal = DealOrder.shuffled(PUSH_VARIANT.getCards(), seed);
+        Card first = deal.card(0);
+        Card second = deal.card(1);
+
+        GameSnapshot game = GameSnapshot.atRound(PUSH_VARIANT, deal, seed, 0, 100).placeBet(10);
+        game = game.guess(first.getCardColor().ordinal());
+        game = game.guess(second.getCardValue() > first.getCardValue() ? 0 : 1);
+        assertEquals(2, game.getStage());
+        game = game.guess(0);
+        assertEquals("push repeats the stage", 2, game.getStage());
+        assertSame(second, game.getLastStageCard());
+        game = game.guess(0);
+        assertEquals(3, game.getStage());
+        assertEquals(GameManager.GameState.GUESS_SUIT, game.getState());
+
+        GameManager manager = new GameManager(PUSH_VARIANT, new SplittableRandom(1), new Player());
+        manager.startGame(seed);
+        manager.placeBet(10);
+        manager.guessColor(first.getCardColor());
+        assertTrue(manager.guessHigherLower(second.getCardValue() > first.getCardValue()));
+        assertFalse(manager.guessInsideOutside(true));
+        assertEquals(GameManager.GameState.GUESS_INSIDE_OUTSIDE, manager.getCurrentState());
+        assertTrue(manager.guessInsideOutside(true));
+        assertEquals(game.getStage(), manager.getStage());
+        assertEquals(game.getWinnings(), manager.getPlayer().getTotalWinnings());
+        assertEquals(game.getBalance(), manager.getPlayer().getBalance());
+    }
+
+    @Test
+    public void snapshotRestoreKeepsTheStageContext() {
+        long seed = pushThenInside();
+        DealOrder deal = DealOrder.shuffled(PUSH_VARIANT.getCards(), seed);
+        GameManager manager = new GameManager(PUSH_VARIANT, new SplittableRandom(1), new Player());
+        manager.startGame(seed);
+        manager.placeBet(10);
+        manager.guessColor(deal.card(0).getCardColor());
+        manager.guessHigherLower(deal.card(1).getCardValue() > deal.card(0).getCardValue());
+        manager.guessInsideOutside(true);
+        GameSnapshot pushed = manager.snapshot();
+
+        assertTrue(manager.guessInsideOutside(true));
+        manager.restore(pushed);
+        assertTrue("same guess after restore", manager.guessInsideOutside(true));
+    }
+
+    @Test
+    public void maxRoundCardsCountsEveryPossiblePush() {
+        assertEquals(4, RuleVariant.CLASSIC.getMaxRoundCards());
+        assertEquals(1 + (1 + 7) + (1 + 14) + 1, PUSH_VARIANT.getMaxRoundCards());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsPenetrationThatLeavesNoRoomForARound() {
+        RuleVariant.compile("Deep", new RuleVariant.Stage[]{RuleVariant.Stage.COLOR, RuleVariant.Stage.HIGHER_LOWER,
+                RuleVariant.Stage.INSIDE_OUTSIDE, RuleVariant.Stage.SUIT},
+            new RuleVariant.Tie[]{RuleVariant.Tie.LOSE, RuleVariant.Tie.LOSE, RuleVariant.Tie.OUTSIDE,
+                RuleVariant.Tie.LOSE}, PayoutTable.DEFAULT, 1, 0.99, 2, 14);
+    }
+
+    // Rounds at the deepest penetration the variant accepts always finish before the shoe runs out
+    @Test
+    public void deepestPenetrationNeverRunsTheShoeDry() {
+        RuleVariant deep = RuleVariant.compile("Deep Push",
+            new RuleVariant.Stage[]{RuleVariant.Stage.COLOR, RuleVariant.Stage.HIGHER_LOWER,
+                RuleVariant.Stage.INSIDE_OUTSIDE, RuleVariant.Stage.SUIT},
+            new RuleVariant.Tie[]{RuleVariant.Tie.LOSE, RuleVariant.Tie.PUSH, RuleVariant.Tie.PUSH,
+                RuleVariant.Tie.LOSE}, PUSH_VARIANT.getPayouts(), 2, 80 / 104.0, 2, 14);
+        SplittableRandom random = new SplittableRandom(7);
+        GameSnapshot game = GameSnapshot.newGame(deep, random.nextLong());
+        for (int round = 0; round < 20_000; round++) {
+            game = game.placeBet(1);
+            while (game.isGuessing()) {
+                game = game.guess(random.nextInt(deep.getStage(game.getStage()).getChoices()));
+            }
+            game = game.nextRound();
+            if (game.needsShuffle()) {
+                game = game.shuffled(random.nextLong());
+            }
+        }
+    }
+
+    // A shuffle of PUSH_VARIANT that deals a, b (ranks differ), a card of b's rank, then one strictly between
+    private static long pushThenInside() {
+        for (long seed = 0; seed < 1_000_000; seed++) {
+            DealOrder deal = DealOrder.shuffled(PUSH_VARIANT.getCards(), seed);
+            int a = deal.card(0).getCardValue();
+            int b = deal.card(1).getCardValue();
+            int c = deal.card(2).getCardValue();
+            int d = deal.card(3).getCardValue();
+            if (a != b && c == b && d > Math.min(a, b) && d < Math.max(a, b)) {
+                return seed;
+            }
+        }
+        fail("No shuffle with a push on inside-outside");
+        return 0;
+    }
+}
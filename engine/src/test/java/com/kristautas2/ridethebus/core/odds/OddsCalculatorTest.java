@@ -0,0 +1,73 @@
+package com.kristautas2.ridethebus.core.odds;
+
+import com.kristautas2.ridethebus.core.logic.PayoutTable;
+import com.kristautas2.ridethebus.core.logic.RuleVariant;
+import com.kristautas2.ridethebus.core.model.Card;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class OddsCalculatorTest {
+    private static final RuleVariant.Stage[] STAGES = {RuleVariant.Stage.COLOR, RuleVariant.Stage.HIGHER_LOWER,
+        RuleVariant.Stage.INSIDE_OUTSIDE, RuleVariant.Stage.SUIT};
+
+    // Every tie rule each stage allows, on a two-deck shoe with a few cards already dealt: the chances must
+    // match counting the cards left that the variant's outcome table scores as a win or a push
+    @Test
+    public void chancesFollowTheVariantsTieRules() {
+        RuleVariant.Tie[][] ties = {
+            {RuleVariant.Tie.LOSE, RuleVariant.Tie.LOSE, RuleVariant.Tie.OUTSIDE, RuleVariant.Tie.LOSE},
+            {RuleVariant.Tie.LOSE, RuleVariant.Tie.WIN, RuleVariant.Tie.INSIDE, RuleVariant.Tie.LOSE},
+            {RuleVariant.Tie.LOSE, RuleVariant.Tie.PUSH, RuleVariant.Tie.PUSH, RuleVariant.Tie.LOSE},
+            {RuleVariant.Tie.LOSE, RuleVariant.Tie.LOSE, RuleVariant.Tie.WIN, RuleVariant.Tie.LOSE},
+            {RuleVariant.Tie.LOSE, RuleVariant.Tie.LOSE, RuleVariant.Tie.LOSE, RuleVariant.Tie.LOSE},
+        };
+        for (RuleVariant.Tie[] tie : ties) {
+            RuleVariant variant = RuleVariant.compile("Ties", STAGES, tie, PayoutTable.DEFAULT, 2, 0, 2, 14);
+            List<Card> left = new ArrayList<>(variant.getCards());
+            OddsCalculator odds = new OddsCalculator(variant.getCards());
+            for (int i = 0; i < 9; i++) {
+                odds.remove(left.remove(i * 11));
+            }
+            for (int stage = 0; stage < STAGES.length; stage++) {
+                for (int previous = 2; previous <= 14; previous++) {
+                    for (int last = 2; last <= 14; last++) {
+                        Card previousCard = Card.of(previous, Card.Suit.CLUBS);
+                        Card lastCard = Card.of(last, Card.Suit.HEARTS);
+                        for (int choice = 0; choice < STAGES[stage].getChoices(); choice++) {
+                            String context = variant.getStage(stage) + ":" + tie[stage] + " choice " + choice
+                                + " after " + previous + ", " + last;
+                            assertEquals(context, count(variant, stage, choice, previousCard, lastCard, left,
+                                RuleVariant.WIN), odds.win(variant, stage, choice, previousCard, lastCard), 1e-12);
+                            assertEquals(context, count(variant, stage, choice, previousCard, lastCard, left,
+                                RuleVariant.PUSH), odds.push(variant, stage, previousCard, lastCard), 1e-12);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void classicShortcutsKeepTheClassicTies() {
+        OddsCalculator odds = new OddsCalculator();
+        assertEquals(odds.higher(9, RuleVariant.Tie.LOSE), odds.higher(9), 0);
+        assertEquals(16.0 / 52, odds.higher(10), 1e-12);
+        assertEquals(16.0 / 52, odds.inside(5, 10), 1e-12);
+        assertEquals(36.0 / 52, odds.outside(5, 10), 1e-12); // the 5s and 10s count as outside
+        assertEquals(44.0 / 52, odds.inside(5, 10, RuleVariant.Tie.PUSH) + odds.outside(5, 10, RuleVariant.Tie.PUSH),
+            1e-12);
+    }
+
+    private static double count(RuleVariant variant, int stage, int choice, Card previous, Card last,
+                                List<Card> left, byte outcome) {
+        int count = 0;
+        for (Card card : left) {
+            if (variant.outcome(stage, choice, previous, last, card) == outcome) count++;
+        }
+        return (double) count / left.size();
+    }
+}
@@ -0,0 +1,88 @@
+package com.kristautas2.ridethebus.core.sim;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class QuantileSketchTest {
+    private static final double ACCURACY = 0.01;
+    private static final int SAMPLES = 100_000;
+
+    // Balances as BankrollSimulator sketches them: ruined players at 0, most near the start, a long right tail
+    private static long[] samples(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < samples.length; i++) {
+            int kind = random.nextInt(10);
+            if (kind == 0) {
+                samples[i] = 0;
+            } else if (kind < 3) {
+                samples[i] = 1 + random.nextInt(20);
+            } else if (kind < 9) {
+                samples[i] = Math.round(Math.exp(random.nextDouble(Math.log(30), Math.log(400))));
+            } else {
+                samples[i] = random.nextLong(1L << 40);
+            }
+        }
+        return samples;
+    }
+
+    @Test
+    public void quantilesAreWithinTheAccuracyOfTheSortedSamples() {
+        for (long seed = 1; seed <= 3; seed++) {
+            long[] samples = samples(seed);
+            QuantileSketch sketch = new QuantileSketch(ACCURACY);
+            for (long sample : samples) {
+                sketch.add(sample);
+            }
+            long[] sorted = samples.clone();
+            Arrays.sort(sorted);
+            assertEquals(SAMPLES, sketch.getCount());
+            for (int percent = 0; percent <= 1000; percent++) {
+                double q = percent / 1000.0;
+                long exact = sorted[(int) (q * (SAMPLES - 1))];
+                double estimate = sketch.quantile(q);
+                assertTrue("q " + q + ": " + estimate + " vs " + exact,
+                    Math.abs(estimate - exact) <= ACCURACY * exact * (1 + 1e-9));
+            }
+        }
+    }
+
+    @Test
+    public void mergedSketchEqualsOneBuiltFromAllSamples() {
+        long[] samples = samples(7);
+        QuantileSketch whole = new QuantileSketch(ACCURACY);
+        QuantileSketch[] workers = new QuantileSketch[5];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new QuantileSketch(ACCURACY);
+        }
+        SplittableRandom random = new SplittableRandom(11);
+        for (long sample : samples) {
+            whole.add(sample);
+            workers[random.nextInt(workers.length)].add(sample);
+        }
+        QuantileSketch merged = new QuantileSketch(ACCURACY);
+        for (QuantileSketch worker : workers) {
+            merged.merge(worker);
+        }
+        assertEquals(whole.getCount(), merged.getCount());
+        for (int percent = 0; percent <= 1000; percent++) {
+            double q = percent / 1000.0;
+            assertEquals("q " + q, whole.quantile(q), merged.quantile(q), 0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sketchesOfDifferentAccuracyDoNotMerge() {
+        new QuantileSketch(0.01).merge(new QuantileSketch(0.02));
+    }
+
+    @Test
+    public void emptySketchHasNoQuantiles() {
+        assertTrue(Double.isNaN(new QuantileSketch(ACCURACY).quantile(0.5)));
+    }
+}
@@ -0,0 +1,90 @@
+package com.kristautas2.ridethebus.core.sim;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TournamentTest {
+    private static final int ROUNDS = 200_000;
+
+    // Net results of the classic table per unit bet (lost, or paid 2, 4, 8 or 32), drawn so the running net
+    // has long losing runs and a few large jumps
+    private static long[] nets(long seed) {
+        long[] nets = new long[ROUNDS];
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < nets.length; i++) {
+            int roll = random.nextInt(1000);
+            nets[i] = roll < 600 ? -1000 : roll < 850 ? 1000 : roll < 950 ? 3000 : roll < 995 ? 7000 : 31_000;
+        }
+        return nets;
+    }
+
+    // Blocks of random lengths, empty and single-round ones included, merged left to right
+    @Test
+    public void manySmallBlocksMergeToTheSingleBlockScore() {
+        for (long seed = 1; seed <= 5; seed++) {
+            long[] nets = nets(seed);
+            Tournament.Score whole = score(nets, 0, nets.length);
+
+            SplittableRandom random = new SplittableRandom(seed * 31);
+            Tournament.Score merged = new Tournament.Score();
+            int blocks = 0;
+            for (int from = 0; from < nets.length; ) {
+                int to = Math.min(nets.length, from + random.nextInt(40));
+                merged.merge(score(nets, from, to));
+                from = to;
+                blocks++;
+            }
+            assertTrue(blocks > 5000);
+            assertSameScore(whole, merged);
+        }
+    }
+
+    // Halves merged pairwise the way BlockTask joins them, down to single rounds
+    @Test
+    public void treeOfBlocksMergesToTheSingleBlockScore() {
+        long[] nets = nets(9);
+        assertSameScore(score(nets, 0, nets.length), tree(nets, 0, nets.length));
+    }
+
+    @Test
+    public void drawdownAcrossABlockBoundaryIsKept() {
+        // up 5 in the first block, down 7 in the second: the fall from the peak spans both
+        long[] nets = {1000, 1000, 3000, -1000, -1000, -1000, -1000, -1000, -1000, -1000, 1000};
+        Tournament.Score merged = score(nets, 0, 3).merge(score(nets, 3, nets.length));
+        assertEquals(0, score(nets, 0, 3).maxDrawdown);
+        assertEquals(7000, merged.maxDrawdown);
+        assertSameScore(score(nets, 0, nets.length), merged);
+    }
+
+    private static Tournament.Score tree(long[] nets, int from, int to) {
+        if (to - from <= 1) {
+            return score(nets, from, to);
+        }
+        int mid = (from + to) >>> 1;
+        return tree(nets, from, mid).merge(tree(nets, mid, to));
+    }
+
+    private static Tournament.Score score(long[] nets, int from, int to) {
+        Tournament.Score score = new Tournament.Score();
+        for (int i = from; i < to; i++) {
+            score.add(nets[i]);
+        }
+        return score;
+    }
+
+    private static void assertSameScore(Tournament.Score expected, Tournament.Score actual) {
+        assertEquals("total", expected.total, actual.total);
+        assertEquals("max drawdown", expected.maxDrawdown, actual.maxDrawdown);
+        assertEquals("max prefix", expected.maxPrefix, actual.maxPrefix);
+        assertEquals("min prefix", expected.minPrefix, actual.minPrefix);
+        assertEquals(expected.stats.getCount(), actual.stats.getCount());
+        assertEquals(expected.getMean(), actual.getMean(), 1e-9);
+        assertEquals(expected.getVariance(), actual.getVariance(), 1e-6 * expected.getVariance());
+    }
+}
@@ -0,0 +1,77 @@
+package com.kristautas2.ridethebus.core.store;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class BalanceWriterTest {
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void burstOfSavesIsOneWriteOfTheLastValue() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("balance.txt");
+        BalanceWriter writer = new BalanceWriter(file);
+        try {
+            for (int i = 1; i <= 1000; i++) {
+                writer.save(i, 1000 + i);
+            }
+            awaitWrites(writer, 1);
+            Thread.sleep(200); // several linger periods: nothing else may follow
+            assertEquals(1, writer.getWrites());
+            assertEquals("1000\n2000", read(file));
+        } finally {
+            writer.close();
+        }
+        assertEquals(1, writer.getWrites());
+    }
+
+    @Test
+    public void closeWritesTheLastPendingValue() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("balance.txt");
+        BalanceWriter writer = new BalanceWriter(file);
+        writer.save(100, 100);
+        awaitWrites(writer, 1);
+        writer.save(250, 300);
+        writer.close();
+        assertEquals(2, writer.getWrites());
+        assertEquals("250\n300", read(file));
+        assertFalse(Files.exists(file.resolveSibling("balance.txt.tmp")));
+    }
+
+    @Test
+    public void valueAlreadyOnDiskIsNotWrittenAgain() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("balance.txt");
+        BalanceWriter writer = new BalanceWriter(file);
+        writer.save(40, 120);
+        awaitWrites(writer, 1);
+        writer.save(40, 120);
+        writer.close();
+        assertEquals(1, writer.getWrites());
+        assertEquals("40\n120", read(file));
+    }
+
+    private static void awaitWrites(BalanceWriter writer, long writes) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (writer.getWrites() < writes) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Still " + writer.getWrites() + " writes after " + TIMEOUT_MILLIS + " ms");
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,139 @@
+package com.kristautas2.ridethebus.core.store;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+
+public class HistoryStoreTest {
+    private static final int ROWS = 10_000; // more than one append batch
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void rowsSurviveReopening() throws IOException {
+        long[] expected = fill(ROWS, 3);
+        try (HistoryStore history = HistoryStore.open(directory())) {
+            assertEquals(ROWS, history.rows());
+            assertTotals(expected, history.query().total());
+            history.append(10, 4, 4, 320, 0);
+        }
+        try (HistoryStore history = HistoryStore.open(directory())) {
+            assertEquals(ROWS + 1, history.rows());
+            assertEquals(expected[1] + 10, history.query().total().getSum(HistoryStore.Column.BET));
+        }
+    }
+
+    @Test
+    public void groupsMatchACountByHand() throws IOException {
+        try (HistoryStore history = HistoryStore.open(directory())) {
+            SplittableRandom random = new SplittableRandom(9);
+            long[] rows = new long[3];
+            long[] wins = new long[3];
+            long[] payouts = new long[3];
+            for (int i = 0; i < ROWS; i++) {
+                int bet = random.nextInt(30);
+                int stage = random.nextInt(5);
+                int payout = stage == 0 ? 0 : bet * (1 << stage);
+                long time = i * (HistoryStore.DAY_MILLIS / 1000);
+                history.append(bet, stage, stage, payout, time);
+                if (time < 5 * HistoryStore.DAY_MILLIS) {
+                    rows[bet / 10]++;
+                    wins[bet / 10] += payout > 0 ? 1 : 0;
+                    payouts[bet / 10] += payout;
+                }
+            }
+            history.flush();
+
+            List<HistoryStore.Group> groups = history.query()
+                .where(HistoryStore.Column.TIME, 0, 5 * HistoryStore.DAY_MILLIS)
+                .groupBy(HistoryStore.Column.BET, 10);
+            assertEquals(3, groups.size());
+            for (int b = 0; b < 3; b++) {
+                HistoryStore.Group group = groups.get(b);
+                assertEquals(b * 10, group.getKey());
+                assertEquals(rows[b], group.getRows());
+                assertEquals(wins[b], group.getWins());
+                assertEquals(payouts[b], group.getSum(HistoryStore.Column.PAYOUT));
+            }
+            assertEquals(10, history.query().groupBy(HistoryStore.Column.TIME, HistoryStore.DAY_MILLIS).size());
+        }
+    }
+
+    // A crash after the count was written but before every column reached the disk
+    @Test
+    public void countAheadOfAColumnKeepsTheCompleteRows() throws IOException {
+        fill(ROWS, 4);
+        Path payout = directory().resolve(HistoryStore.Column.PAYOUT.getName() + ".col");
+        try (FileChannel channel = FileChannel.open(payout, StandardOpenOption.WRITE)) {
+            channel.truncate((ROWS - 100) * HistoryStore.Column.PAYOUT.getWidth() + 2L); // and half a row
+        }
+        try (HistoryStore history = HistoryStore.open(directory())) {
+            assertEquals(ROWS - 100, history.rows());
+            assertEquals(ROWS - 100, history.query().total().getRows());
+            history.append(10, 1, 1, 20, 0);
+        }
+        try (HistoryStore history = HistoryStore.open(directory())) {
+            assertEquals(ROWS - 99, history.rows());
+        }
+        for (HistoryStore.Column column : HistoryStore.Column.values()) {
+            assertEquals(column.getName(), (ROWS - 99L) * column.getWidth(),
+                Files.size(directory().resolve(column.getName() + ".col")));
+        }
+    }
+
+    // Rows past the committed count, e.g. a batch written without its count, are dropped on open
+    @Test
+    public void uncommittedTailIsDropped() throws IOException {
+        fill(ROWS, 5);
+        Path bet = directory().resolve(HistoryStore.Column.BET.getName() + ".col");
+        try (FileChannel channel = FileChannel.open(bet, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.allocate(40));
+        }
+        try (HistoryStore history = HistoryStore.open(directory())) {
+            assertEquals(ROWS, history.rows());
+        }
+        assertEquals(ROWS * 4L, Files.size(bet));
+    }
+
+    // Appends random rows and closes the store; returns {rows, bet sum, payout sum, rows that paid}
+    private long[] fill(int rows, long seed) throws IOException {
+        long[] totals = new long[4];
+        SplittableRandom random = new SplittableRandom(seed);
+        try (HistoryStore history = HistoryStore.open(directory())) {
+            for (int i = 0; i < rows; i++) {
+                int bet = 1 + random.nextInt(100);
+                int stage = random.nextInt(5);
+                int payout = stage == 0 ? 0 : bet * 2 * stage;
+                history.append(bet, stage, stage, payout, i);
+                totals[0]++;
+                totals[1] += bet;
+                totals[2] += payout;
+                totals[3] += payout > 0 ? 1 : 0;
+            }
+        }
+        return totals;
+    }
+
+    private static void assertTotals(long[] expected, HistoryStore.Group total) {
+        assertEquals(expected[0], total.getRows());
+        assertEquals(expected[1], total.getSum(HistoryStore.Column.BET));
+        assertEquals(expected[2], total.getSum(HistoryStore.Column.PAYOUT));
+        assertEquals(expected[3], total.getWins());
+    }
+
+    private Path directory() {
+        return folder.getRoot().toPath();
+    }
+}
@@ -0,0 +1,132 @@
+package com.kristautas2.ridethebus.core.store;
+
+import com.kristautas2.ridethebus.core.logic.RuleVariant;
+import com.kristautas2.ridethebus.core.model.Player;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JournalVerifierTest {
+    private static final JournalVerifier VERIFIER = new JournalVerifier(Collections.singletonList(RuleVariant.CLASSIC));
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void changedSeedIsReported() throws IOException {
+        RoundJournal journal = new RoundJournal(directory(), RuleVariant.CLASSIC.getName(), 4096);
+        RoundJournalTest.play(RuleVariant.CLASSIC, new Player(), journal, 50, 5);
+        journal.close();
+        assertTrue(VERIFIER.verify(directory()).isValid());
+
+        Path segment = RoundJournal.segments(directory()).get(0);
+        int lastSeedByte = RoundJournal.HEADER + 8; // the classic game reshuffles before every round
+        byte[] bytes = Files.readAllBytes(segment);
+        write(segment, lastSeedByte, (byte) (bytes[lastSeedByte] ^ 1));
+        JournalVerifier.Report report = VERIFIER.verify(directory());
+        assertFalse(report.isValid());
+        assertEquals(1, report.getMismatches());
+        assertTrue(report.getDetails().get(0), report.getDetails().get(0).contains("@" + RoundJournal.HEADER));
+    }
+
+    @Test
+    public void varintRunningPastTheEndIsReported() throws IOException {
+        Path segment = emptySegment();
+        byte[] record = new byte[9 + 6];
+        record[0] = (byte) (RoundJournal.NEW_SHUFFLE | RoundJournal.LOST << RoundJournal.END_SHIFT | 1);
+        for (int i = 9; i < record.length; i++) {
+            record[i] = (byte) 0xFF; // continuation bits to the very end of the file
+        }
+        truncate(segment, RoundJournal.HEADER);
+        write(segment, RoundJournal.HEADER, record);
+        assertOverrun(VERIFIER.verify(directory()));
+    }
+
+    @Test
+    public void seedCutOffByTheEndIsReported() throws IOException {
+        Path segment = emptySegment();
+        truncate(segment, RoundJournal.HEADER);
+        write(segment, RoundJournal.HEADER,
+            (byte) (RoundJournal.NEW_SHUFFLE | RoundJournal.LOST << RoundJournal.END_SHIFT | 1), (byte) 1, (byte) 2);
+        assertOverrun(VERIFIER.verify(directory()));
+    }
+
+    @Test
+    public void guessCountPastTheEndIsReported() throws IOException {
+        Path segment = emptySegment();
+        byte[] record = new byte[9 + 3 + 5];
+        record[0] = (byte) (RoundJournal.NEW_SHUFFLE | RoundJournal.LOST << RoundJournal.END_SHIFT
+            | RoundJournal.COUNT_MASK);
+        record[9] = 0;      // round start
+        record[10] = 10;    // bet
+        record[11] = 19;    // zigzag(-10)
+        record[12] = (byte) 0xFF;
+        record[13] = (byte) 0xFF;
+        record[14] = (byte) 0xFF;
+        record[15] = (byte) 0xFF;
+        record[16] = 0x07;  // about 2^31 guesses
+        write(segment, RoundJournal.HEADER, record);
+        assertOverrun(VERIFIER.verify(directory()));
+    }
+
+    @Test
+    public void badHeadersAreReported() throws IOException {
+        Path segment = emptySegment();
+        write(segment, 16, (byte) 0xFF, (byte) 0xFF); // name length -1
+        JournalVerifier.Report report = VERIFIER.verify(directory());
+        assertEquals(1, report.getMismatches());
+
+        write(segment, 16, (byte) 0, (byte) 1);
+        report = VERIFIER.verify(directory());
+        assertEquals(1, report.getMismatches());
+        assertTrue(report.getDetails().get(0), report.getDetails().get(0).contains("unknown rule variant"));
+
+        write(segment, 0, (byte) 0);
+        report = VERIFIER.verify(directory());
+        assertTrue(report.getDetails().get(0), report.getDetails().get(0).contains("not a journal segment"));
+    }
+
+    private static void assertOverrun(JournalVerifier.Report report) {
+        assertEquals(1, report.getMismatches());
+        assertTrue(report.getDetails().get(0), report.getDetails().get(0).contains("runs past the end"));
+    }
+
+    private Path emptySegment() throws IOException {
+        new RoundJournal(directory(), RuleVariant.CLASSIC.getName(), 4096).close();
+        List<Path> segments = RoundJournal.segments(directory());
+        assertEquals(1, segments.size());
+        return segments.get(0);
+    }
+
+    private static void write(Path file, long position, byte... bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, position + buffer.position());
+            }
+        }
+    }
+
+    private static void truncate(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+
+    private Path directory() {
+        return folder.getRoot().toPath();
+    }
+}
@@ -0,0 +1,161 @@
+package com.kristautas2.ridethebus.core.store;
+
+import com.kristautas2.ridethebus.core.model.Player;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PlayerStoreTest {
+    private static final int PROFILES = 300;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void profilesSurviveReopening() throws IOException {
+        try (PlayerStore store = PlayerStore.open(file())) {
+            for (int i = 0; i < PROFILES; i++) {
+                store.save("kiosk-" + i, player(i));
+            }
+            assertEquals(PROFILES, store.size());
+        }
+        try (PlayerStore store = PlayerStore.open(file())) {
+            assertEquals(PROFILES, store.size());
+            List<String> profiles = store.profiles();
+            for (int i = 0; i < PROFILES; i++) {
+                assertEquals("kiosk-" + i, profiles.get(i));
+                assertSamePlayer(player(i), store.load("kiosk-" + i));
+            }
+        }
+    }
+
+    @Test
+    public void saveRewritesTheRecordInPlace() throws IOException {
+        try (PlayerStore store = PlayerStore.open(file())) {
+            store.save("a", player(1));
+            store.save("b", player(2));
+        }
+        long size = Files.size(file());
+        try (PlayerStore store = PlayerStore.open(file())) {
+            store.save("a", player(7));
+        }
+        assertEquals(size, Files.size(file()));
+        try (PlayerStore store = PlayerStore.open(file())) {
+            assertEquals(2, store.size());
+            assertSamePlayer(player(7), store.load("a"));
+            assertSamePlayer(player(2), store.load("b"));
+        }
+    }
+
+    @Test
+    public void unknownProfileIsANewPlayer() throws IOException {
+        try (PlayerStore store = PlayerStore.open(file())) {
+            assertFalse(store.contains("nobody"));
+            Player player = store.load("nobody");
+            assertEquals(100, player.getBalance());
+            assertEquals(100, player.getHighScore());
+            assertEquals(0, player.getRounds());
+            assertFalse(store.contains("nobody"));
+        }
+    }
+
+    @Test
+    public void profileIdsAreLimited() throws IOException {
+        try (PlayerStore store = PlayerStore.open(file())) {
+            for (String id : new String[]{"", new String(new char[PlayerStore.MAX_ID_BYTES + 1]).replace('\0', 'x'),
+                new String(new char[PlayerStore.MAX_ID_BYTES / 2 + 1]).replace('\0', 'é')}) {
+                try {
+                    store.save(id, new Player());
+                    fail("Saved id of " + id.length() + " chars");
+                } catch (IllegalArgumentException expected) {
+                    // too long in UTF-8, or empty
+                }
+            }
+            store.save(new String(new char[PlayerStore.MAX_ID_BYTES]).replace('\0', 'x'), new Player());
+            assertEquals(1, store.size());
+        }
+    }
+
+    @Test
+    public void otherFilesAreRejected() throws IOException {
+        Files.write(file(), new byte[64]);
+        try {
+            PlayerStore.open(file()).close();
+            fail("Opened a file of zeros");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("Not a player store"));
+        }
+    }
+
+    @Test
+    public void policyTableMagicIsNotAPlayerStore() throws IOException {
+        Files.write(file(), header(0x52544250, 0)); // "RTBP", what PolicyTable files start with
+        try {
+            PlayerStore.open(file()).close();
+            fail("Opened a policy table");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("Not a player store"));
+        }
+    }
+
+    // A count whose records would not fit one index buffer is refused before anything is allocated, even
+    // when a sparse file is long enough to hold them
+    @Test
+    public void recordCountBeyondTheIndexBufferIsRejected() throws IOException {
+        try (PlayerStore store = PlayerStore.open(file())) {
+            store.save("a", player(1));
+        }
+        ByteBuffer magic = ByteBuffer.wrap(Files.readAllBytes(file()), 0, 4);
+        int records = PlayerStore.MAX_RECORDS + 1;
+        try (RandomAccessFile raw = new RandomAccessFile(file().toFile(), "rw")) {
+            raw.write(header(magic.getInt(), records));
+            raw.setLength(64 + (long) records * 128);
+        }
+        try {
+            PlayerStore.open(file()).close();
+            fail("Opened a store claiming " + records + " profiles");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("claims " + records));
+        }
+    }
+
+    // magic, version 1, 128-byte records, count, then the reserved rest of the 64-byte header
+    private static byte[] header(int magic, int records) {
+        return ByteBuffer.allocate(64).putInt(magic).putInt(1).putInt(128).putInt(records).array();
+    }
+
+    private static Player player(int i) {
+        Player player = new Player();
+        player.restore(1000L + i, 0, 0, 5000L + i, 5 + i % 20);
+        player.restoreStats(10L * i, 3L * i, 100L * i, 90L * i, i, i % 4);
+        return player;
+    }
+
+    private static void assertSamePlayer(Player expected, Player actual) {
+        assertEquals(expected.getBalance(), actual.getBalance());
+        assertEquals(expected.getHighScore(), actual.getHighScore());
+        assertEquals(expected.defaultBet, actual.defaultBet);
+        assertEquals(expected.getRounds(), actual.getRounds());
+        assertEquals(expected.getPaidRounds(), actual.getPaidRounds());
+        assertEquals(expected.getWagered(), actual.getWagered());
+        assertEquals(expected.getPaidOut(), actual.getPaidOut());
+        assertEquals(expected.getBiggestWin(), actual.getBiggestWin());
+        assertEquals(expected.getRestarts(), actual.getRestarts());
+    }
+
+    private Path file() {
+        return folder.getRoot().toPath().resolve("players.bin");
+    }
+}
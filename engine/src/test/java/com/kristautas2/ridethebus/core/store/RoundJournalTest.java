@@ -0,0 +1,121 @@
+package com.kristautas2.ridethebus.core.store;
+
+import com.kristautas2.ridethebus.core.logic.BundledVariants;
+import com.kristautas2.ridethebus.core.logic.GameManager;
+import com.kristautas2.ridethebus.core.logic.PayoutTable;
+import com.kristautas2.ridethebus.core.logic.RuleVariant;
+import com.kristautas2.ridethebus.core.model.Card;
+import com.kristautas2.ridethebus.core.model.Player;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RoundJournalTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void everyRoundVerifiesAcrossSegments() throws IOException {
+        for (RuleVariant variant : new RuleVariant[]{RuleVariant.CLASSIC, BundledVariants.DOUBLE_DECK_PUSH}) {
+            Path journalDirectory = directory().resolve(variant.getName());
+            Player player = new Player();
+            RoundJournal journal = new RoundJournal(journalDirectory, variant.getName(), 1024);
+            play(variant, player, journal, 2000, 11);
+            journal.close();
+
+            List<Path> segments = RoundJournal.segments(journalDirectory);
+            assertTrue("rounds spread over several segments", segments.size() > 2);
+            JournalVerifier.Report report = new JournalVerifier(Collections.singletonList(variant))
+                .verify(journalDirectory);
+            assertTrue(report.toString(), report.isValid());
+            assertEquals(2000, journal.getRounds());
+            assertEquals(journal.getRounds(), report.getRounds());
+            assertEquals(segments.size(), report.getSegments());
+            assertEquals(player.getWagered(), report.getWagered());
+            assertEquals(player.getPaidOut(), report.getPaidOut());
+            assertEquals(report.getRounds(), report.getEnded(RoundJournal.LOST)
+                + report.getEnded(RoundJournal.COLLECTED) + report.getEnded(RoundJournal.WON));
+        }
+    }
+
+    @Test
+    public void reopenedJournalStartsANewSegment() throws IOException {
+        RoundJournal first = new RoundJournal(directory(), RuleVariant.CLASSIC.getName(), 4096);
+        play(RuleVariant.CLASSIC, new Player(), first, 10, 1);
+        first.close();
+        RoundJournal second = new RoundJournal(directory(), RuleVariant.CLASSIC.getName(), 4096);
+        play(RuleVariant.CLASSIC, new Player(), second, 10, 2);
+        second.close();
+
+        List<Path> segments = RoundJournal.segments(directory());
+        assertEquals(2, segments.size());
+        assertEquals(0, RoundJournal.number(segments.get(0)));
+        assertEquals(1, RoundJournal.number(segments.get(1)));
+        JournalVerifier.Report report = new JournalVerifier(Collections.singletonList(RuleVariant.CLASSIC))
+            .verify(directory());
+        assertTrue(report.toString(), report.isValid());
+        assertEquals(20, report.getRounds());
+    }
+
+    @Test
+    public void zigzagRoundTrips() {
+        for (long value : new long[]{0, 1, -1, 63, -64, Integer.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE}) {
+            assertEquals(value, RoundJournal.unzigzag(RoundJournal.zigzag(value)));
+        }
+        assertEquals(1, RoundJournal.zigzag(-1));
+        assertEquals(2, RoundJournal.zigzag(1));
+    }
+
+    // Plays rounds of random guesses, collecting now and then, with the journal attached
+    static void play(RuleVariant variant, Player player, RoundJournal journal, int rounds, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        GameManager game = new GameManager(variant, random.split(), player);
+        game.setJournal(journal);
+        game.startGame();
+        while (journal.getRounds() < rounds) {
+            game.placeBet((int) Math.min(10, player.getBalance()));
+            while (game.getStage() < variant.stages()
+                && game.getCurrentState() == variant.getStage(game.getStage()).getState()) {
+                if (game.getStage() > 0 && random.nextInt(4) == 0) {
+                    break;
+                }
+                guess(game, variant.getStage(game.getStage()), random);
+            }
+            if (game.getCurrentState() == GameManager.GameState.LOST
+                || game.getCurrentState() == GameManager.GameState.GAME_OVER) {
+                game.startGame();
+            } else {
+                game.collectWinnings();
+            }
+        }
+    }
+
+    private static void guess(GameManager game, RuleVariant.Stage stage, SplittableRandom random) {
+        switch (stage) {
+            case COLOR:
+                game.guessColor(random.nextBoolean() ? Card.Color.RED : Card.Color.BLACK);
+                break;
+            case HIGHER_LOWER:
+                game.guessHigherLower(random.nextBoolean());
+                break;
+            case INSIDE_OUTSIDE:
+                game.guessInsideOutside(random.nextBoolean());
+                break;
+            default:
+                game.guessSuit(Card.Suit.values()[random.nextInt(4)]);
+        }
+    }
+
+    private Path directory() {
+        return folder.getRoot().toPath();
+    }
+}
@@ -0,0 +1,223 @@
+package com.kristautas2.ridethebus.server;
+
+import com.kristautas2.ridethebus.core.logic.GameManager;
+import com.kristautas2.ridethebus.core.logic.RuleVariant;
+import com.kristautas2.ridethebus.core.model.Card;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Blocking client for one session (see Protocol); one request in flight at a time. Not thread-safe.
+// main() doubles as a load generator: many connections playing random rounds at once.
+public final class GameClient implements Closeable {
+    private static final GameManager.GameState[] STATES = GameManager.GameState.values();
+    private static final RuleVariant.Stage[] STAGE_KINDS = RuleVariant.Stage.values();
+
+    // One reply: the status and the session's state after the request
+    public static final class Reply {
+        private final byte status;
+        private final GameManager.GameState state;
+        private final int stage;
+        private final List<Card> cards;
+        private final long balance;
+        private final int bet;
+        private final int winnings;
+        private final long highScore;
+        private final int defaultBet;
+
+        private Reply(DataInputStream in) throws IOException {
+            status = in.readByte();
+            state = STATES[in.readUnsignedByte()];
+            stage = in.readUnsignedByte();
+            Card[] dealt = new Card[in.readUnsignedByte()];
+            for (int i = 0; i < dealt.length; i++) {
+                dealt[i] = Card.byId(in.readUnsignedByte());
+            }
+            cards = Collections.unmodifiableList(Arrays.asList(dealt));
+            balance = in.readLong();
+            bet = in.readInt();
+            winnings = in.readInt();
+            highScore = in.readLong();
+            defaultBet = in.readInt();
+        }
+
+        public byte getStatus() {
+            return status;
+        }
+
+        public boolean isOk() {
+            return status == Protocol.OK;
+        }
+
+        public GameManager.GameState getState() {
+            return state;
+        }
+
+        public int getStage() {
+            return stage;
+        }
+
+        public List<Card> getCards() {
+            return cards;
+        }
+
+        public long getBalance() {
+            return balance;
+        }
+
+        public int getBet() {
+            return bet;
+        }
+
+        public int getWinnings() {
+            return winnings;
+        }
+
+        public long getHighScore() {
+            return highScore;
+        }
+
+        public int getDefaultBet() {
+            return defaultBet;
+        }
+
+        @Override
+        public String toString() {
+            return (isOk() ? "" : "status " + status + ", ") + state + " stage " + stage + ", cards " + cards
+                + ", balance " + balance + ", bet " + bet + ", winnings " + winnings;
+        }
+    }
+
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private final String variantName;
+    private final List<RuleVariant.Stage> stages;
+    private Reply last;
+
+    public GameClient(String host, int port) throws IOException {
+        this.socket = new Socket(host, port);
+        socket.setTcpNoDelay(true);
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 128));
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 16));
+        this.variantName = in.readUTF();
+        List<RuleVariant.Stage> kinds = new ArrayList<>();
+        for (int i = in.readUnsignedByte(); i > 0; i--) {
+            kinds.add(STAGE_KINDS[in.readUnsignedByte()]);
+        }
+        this.stages = Collections.unmodifiableList(kinds);
+        this.last = new Reply(in);
+    }
+
+    public Reply state() throws IOException {
+        out.writeByte(Protocol.STATE);
+        return reply();
+    }
+
+    public Reply bet(int amount) throws IOException {
+        out.writeByte(Protocol.BET);
+        out.writeInt(amount);
+        return reply();
+    }
+
+    public Reply guess(int choice) throws IOException {
+        out.writeByte(Protocol.GUESS);
+        out.writeByte(choice);
+        return reply();
+    }
+
+    public Reply collect() throws IOException {
+        out.writeByte(Protocol.COLLECT);
+        return reply();
+    }
+
+    public Reply next() throws IOException {
+        out.writeByte(Protocol.NEXT);
+        return reply();
+    }
+
+    private Reply reply() throws IOException {
+        out.flush();
+        last = new Reply(in);
+        return last;
+    }
+
+    // The reply to the last request (or the greeting), without a round trip
+    public Reply last() {
+        return last;
+    }
+
+    public String getVariantName() {
+        return variantName;
+    }
+
+    public List<RuleVariant.Stage> getStages() {
+        return stages;
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    // Plays rounds of random guesses, betting 10 (or what is left) each time; returns the requests made
+    static long play(GameClient client, int rounds, SplittableRandom random) throws IOException {
+        long requests = 0;
+        for (int round = 0; round < rounds; round++) {
+            Reply reply = client.bet((int) Math.min(10, client.last().getBalance()));
+            requests++;
+            while (reply.isOk() && reply.getStage() < client.stages.size()
+                && reply.getState() == client.stages.get(reply.getStage()).getState()) {
+                reply = client.guess(random.nextInt(client.stages.get(reply.getStage()).getChoices()));
+                requests++;
+            }
+            if (!reply.isOk()) {
+                throw new IllegalStateException("Unexpected reply " + reply);
+            }
+            client.next();
+            requests++;
+        }
+        return requests;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : Protocol.DEFAULT_PORT;
+        int connections = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+
+        LongAdder requests = new LongAdder();
+        LongAdder failures = new LongAdder();
+        ExecutorService threads = GameServer.connectionExecutor();
+        long start = System.nanoTime();
+        for (int i = 0; i < connections; i++) {
+            long seed = i;
+            threads.execute(() -> {
+                try (GameClient client = new GameClient(host, port)) {
+                    requests.add(play(client, rounds, new SplittableRandom(seed)));
+                } catch (IOException | RuntimeException e) {
+                    failures.increment();
+                    System.err.println(e);
+                }
+            });
+        }
+        threads.shutdown();
+        threads.awaitTermination(1, TimeUnit.HOURS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d connections, %d requests, %d failed, %.2f s, %.0f requests/s%n",
+            connections, requests.sum(), failures.sum(), seconds, requests.sum() / seconds);
+    }
+}
@@ -0,0 +1,93 @@
+package com.kristautas2.ridethebus.server;
+
+import com.kristautas2.ridethebus.core.logic.GameSnapshot;
+import com.kristautas2.ridethebus.core.logic.RuleVariant;
+import com.kristautas2.ridethebus.core.model.RandomStreams;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Hosts any number of Ride the Bus sessions over TCP, one thread per connection (see Protocol).
+// Connections run on virtual threads where the JVM has them (Java 21+), so tens of thousands of idle
+// sessions cost a few KB each; on older JVMs they fall back to small-stack platform threads.
+// Session i plays on random stream i of the master seed, so a whole server run can be repeated.
+public final class GameServer implements Closeable {
+    private static final int BACKLOG = 4096;
+    private static final int PLATFORM_STACK = 256 * 1024;
+
+    private final GameSnapshot table; // every session reshuffles from this, sharing its card array
+    private final RandomStreams streams;
+    private final ServerSocket socket;
+    private final ExecutorService connections;
+    private long sessions; // only touched by the accept loop
+
+    public GameServer(RuleVariant variant, long seed, int port) throws IOException {
+        this.streams = new RandomStreams(seed);
+        this.table = GameSnapshot.newGame(variant, seed);
+        this.socket = new ServerSocket(port, BACKLOG);
+        this.connections = connectionExecutor();
+    }
+
+    // Accepts connections until close(); each becomes a session on its own thread
+    public void serve() throws IOException {
+        while (!socket.isClosed()) {
+            Socket connection;
+            try {
+                connection = socket.accept();
+            } catch (SocketException e) {
+                if (socket.isClosed()) {
+                    break;
+                }
+                throw e;
+            }
+            connections.execute(new Session(connection, table, streams.stream(sessions++)));
+        }
+    }
+
+    public int getPort() {
+        return socket.getLocalPort();
+    }
+
+    public long getSessions() {
+        return sessions;
+    }
+
+    // Stops accepting; open sessions end when their clients disconnect
+    @Override
+    public void close() throws IOException {
+        socket.close();
+        connections.shutdown();
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() when available; the engine builds for Java 8, hence reflection
+    static ExecutorService connectionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(null, task, "session-" + count.incrementAndGet(), PLATFORM_STACK);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : Protocol.DEFAULT_PORT;
+        RuleVariant variant = args.length > 1 ? RuleVariant.load(Paths.get(args[1])) : RuleVariant.CLASSIC;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+
+        try (GameServer server = new GameServer(variant, seed, port)) {
+            System.out.println("Serving " + variant.getName() + " on port " + server.getPort() + ", seed " + seed);
+            server.serve();
+        }
+    }
+}
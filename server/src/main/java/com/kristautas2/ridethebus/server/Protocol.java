@@ -0,0 +1,63 @@
+package com.kristautas2.ridethebus.server;
+
+import com.kristautas2.ridethebus.core.logic.GameSnapshot;
+import com.kristautas2.ridethebus.core.logic.RuleVariant;
+import com.kristautas2.ridethebus.core.model.Card;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+
+// The wire format, big-endian (DataInput/DataOutput). On connect the server sends a hello:
+//   utf variant name, byte stage count, one byte per stage (RuleVariant.Stage ordinal), then a reply.
+// Each request is an opcode byte followed by its arguments; each is answered by exactly one reply:
+//   byte status, byte state (GameManager.GameState ordinal), byte stage, byte card count,
+//   one byte per card of the round (Card.getId), long balance, int bet, int winnings, long high score,
+//   int default bet.
+// A reply with a status other than OK carries the unchanged state.
+public final class Protocol {
+    public static final int DEFAULT_PORT = 7531;
+
+    // Requests
+    public static final byte STATE = 0;   // no arguments
+    public static final byte BET = 1;     // int amount
+    public static final byte GUESS = 2;   // byte choice, as in RuleVariant.Stage
+    // No arguments; cashes the stages won so far and starts the next round. Unlike GameManager.collectWinnings,
+    // which lets the bet go at the first stage, COLLECT before a stage is won is ILLEGAL_STATE: there is
+    // nothing to cash, and a client walking away from a bet has to play it out or disconnect.
+    public static final byte COLLECT = 3;
+    public static final byte NEXT = 4;    // no arguments; the next round after GAME_OVER or LOST
+
+    // Reply status
+    public static final byte OK = 0;
+    public static final byte ILLEGAL_STATE = 1;   // the request is not allowed in the current state
+    public static final byte BAD_ARGUMENT = 2;
+    public static final byte UNKNOWN_REQUEST = 3; // the server closes the connection after this reply
+
+    private Protocol() {
+    }
+
+    static void writeHello(DataOutput out, RuleVariant variant) throws IOException {
+        out.writeUTF(variant.getName());
+        out.writeByte(variant.stages());
+        for (int stage = 0; stage < variant.stages(); stage++) {
+            out.writeByte(variant.getStage(stage).ordinal());
+        }
+    }
+
+    static void writeReply(DataOutput out, byte status, GameSnapshot game) throws IOException {
+        out.writeByte(status);
+        out.writeByte(game.getState().ordinal());
+        out.writeByte(game.getStage());
+        List<Card> cards = game.getDealtCards();
+        out.writeByte(cards.size());
+        for (int i = 0; i < cards.size(); i++) {
+            out.writeByte(cards.get(i).getId());
+        }
+        out.writeLong(game.getBalance());
+        out.writeInt(game.getBet());
+        out.writeInt(game.getWinnings());
+        out.writeLong(game.getHighScore());
+        out.writeInt(game.getDefaultBet());
+    }
+}
@@ -0,0 +1,91 @@
+package com.kristautas2.ridethebus.server;
+
+import com.kristautas2.ridethebus.core.logic.GameManager;
+import com.kristautas2.ridethebus.core.logic.GameSnapshot;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.SplittableRandom;
+
+// One connection, one game. Everything here is confined to the session's own thread: the state is an
+// immutable GameSnapshot (a few hundred bytes, sharing the card array with every other session) and a
+// private random stream, so sessions never touch shared state or take a lock.
+final class Session implements Runnable {
+    private static final int BUFFER = 128; // a reply is 33 bytes plus one per card
+
+    private final Socket socket;
+    private final SplittableRandom random;
+    private GameSnapshot game;
+
+    Session(Socket socket, GameSnapshot table, SplittableRandom random) {
+        this.socket = socket;
+        this.random = random;
+        this.game = table.shuffled(random.nextLong());
+    }
+
+    @Override
+    public void run() {
+        try (Socket connection = socket) {
+            connection.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream(), BUFFER));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream(), BUFFER));
+            Protocol.writeHello(out, game.getVariant());
+            Protocol.writeReply(out, Protocol.OK, game);
+            out.flush();
+            int request;
+            while ((request = in.read()) != -1) {
+                byte status = handle(request, in);
+                Protocol.writeReply(out, status, game);
+                out.flush();
+                if (status == Protocol.UNKNOWN_REQUEST) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            // the client went away; its session goes with it
+        }
+    }
+
+    private byte handle(int request, DataInputStream in) throws IOException {
+        try {
+            switch (request) {
+                case Protocol.STATE:
+                    return Protocol.OK;
+                case Protocol.BET:
+                    game = game.placeBet(in.readInt());
+                    return Protocol.OK;
+                case Protocol.GUESS:
+                    game = game.guess(in.readByte());
+                    return Protocol.OK;
+                case Protocol.COLLECT:
+                    // stricter than GameManager.collectWinnings, which forfeits the bet at stage 0 (see Protocol)
+                    if (!game.isGuessing() || game.getStage() == 0) {
+                        return Protocol.ILLEGAL_STATE;
+                    }
+                    game = nextRound(game.collect());
+                    return Protocol.OK;
+                case Protocol.NEXT:
+                    if (game.getState() != GameManager.GameState.GAME_OVER && game.getState() != GameManager.GameState.LOST) {
+                        return Protocol.ILLEGAL_STATE;
+                    }
+                    game = nextRound(game.nextRound());
+                    return Protocol.OK;
+                default:
+                    return Protocol.UNKNOWN_REQUEST;
+            }
+        } catch (IllegalStateException e) {
+            return Protocol.ILLEGAL_STATE;
+        } catch (IllegalArgumentException e) {
+            return Protocol.BAD_ARGUMENT;
+        }
+    }
+
+    // GameManager.startGame(): reshuffle with a fresh seed once the cut card is out
+    private GameSnapshot nextRound(GameSnapshot round) {
+        return round.needsShuffle() ? round.shuffled(random.nextLong()) : round;
+    }
+}
@@ -0,0 +1,161 @@
+package com.kristautas2.ridethebus.server;
+
+import com.kristautas2.ridethebus.core.logic.GameManager;
+import com.kristautas2.ridethebus.core.logic.GameSnapshot;
+import com.kristautas2.ridethebus.core.logic.RuleVariant;
+import com.kristautas2.ridethebus.core.model.RandomStreams;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GameServerTest {
+    private static final long SEED = 20250101;
+    private static final RuleVariant VARIANT = RuleVariant.CLASSIC;
+
+    private GameServer server;
+    private Thread acceptLoop;
+
+    @Before
+    public void start() throws IOException {
+        server = new GameServer(VARIANT, SEED, 0);
+        acceptLoop = new Thread(() -> {
+            try {
+                server.serve();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, "accept-loop");
+        acceptLoop.setDaemon(true);
+        acceptLoop.start();
+    }
+
+    @After
+    public void stop() throws Exception {
+        server.close();
+        acceptLoop.join(10_000);
+    }
+
+    // A whole session over loopback, every reply checked against the same requests made on a GameSnapshot
+    // shuffled the way the server shuffles its first session
+    @Test
+    public void repliesMatchTheEngineRoundByRound() throws IOException {
+        SplittableRandom sessionRandom = new RandomStreams(SEED).stream(0);
+        GameSnapshot game = GameSnapshot.newGame(VARIANT, SEED).shuffled(sessionRandom.nextLong());
+        SplittableRandom random = new SplittableRandom(7);
+        try (GameClient client = new GameClient("localhost", server.getPort())) {
+            assertEquals(VARIANT.getName(), client.getVariantName());
+            assertEquals(VARIANT.stages(), client.getStages().size());
+            for (int stage = 0; stage < VARIANT.stages(); stage++) {
+                assertEquals(VARIANT.getStage(stage), client.getStages().get(stage));
+            }
+            assertSame(game, client.last());
+
+            for (int round = 0; round < 300; round++) {
+                int amount = (int) Math.min(10, game.getBalance());
+                if (amount == 0) {
+                    break;
+                }
+                game = game.placeBet(amount);
+                assertSame(game, client.bet(amount));
+                while (game.isGuessing()) {
+                    if (game.getStage() > 0 && random.nextInt(4) == 0) {
+                        game = game.collect();
+                        game = game.needsShuffle() ? game.shuffled(sessionRandom.nextLong()) : game;
+                        assertSame(game, client.collect());
+                        break;
+                    }
+                    int choice = random.nextInt(VARIANT.getStage(game.getStage()).getChoices());
+                    game = game.guess(choice);
+                    assertSame(game, client.guess(choice));
+                }
+                if (game.getState() == GameManager.GameState.GAME_OVER || game.getState() == GameManager.GameState.LOST) {
+                    game = game.nextRound();
+                    game = game.needsShuffle() ? game.shuffled(sessionRandom.nextLong()) : game;
+                    assertSame(game, client.next());
+                }
+            }
+            assertSame(game, client.state());
+        }
+    }
+
+    @Test
+    public void refusedRequestsLeaveTheStateAsItWas() throws IOException {
+        try (GameClient client = new GameClient("localhost", server.getPort())) {
+            GameClient.Reply start = client.last();
+            assertEquals(GameManager.GameState.BETTING, start.getState());
+
+            assertRefused(Protocol.ILLEGAL_STATE, start, client.next());
+            assertRefused(Protocol.ILLEGAL_STATE, start, client.guess(0));
+            assertRefused(Protocol.ILLEGAL_STATE, start, client.collect());
+            assertRefused(Protocol.BAD_ARGUMENT, start, client.bet(0));
+            assertRefused(Protocol.BAD_ARGUMENT, start, client.bet(-5));
+
+            GameClient.Reply betting = client.bet(10);
+            assertTrue(betting.isOk());
+            assertEquals(0, betting.getStage());
+            // GameManager.collectWinnings would let the bet go here; the server refuses (see Protocol.COLLECT)
+            assertRefused(Protocol.ILLEGAL_STATE, betting, client.collect());
+            assertRefused(Protocol.ILLEGAL_STATE, betting, client.bet(10));
+            assertRefused(Protocol.BAD_ARGUMENT, betting, client.guess(VARIANT.getStage(0).getChoices()));
+            assertTrue(client.guess(0).isOk());
+        }
+    }
+
+    @Test
+    public void unknownRequestIsAnsweredThenTheConnectionCloses() throws IOException {
+        try (Socket socket = new Socket("localhost", server.getPort())) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            assertEquals(VARIANT.getName(), in.readUTF());
+            in.skipBytes(in.readUnsignedByte());
+            assertEquals(Protocol.OK, in.readByte());
+            skipReply(in);
+
+            socket.getOutputStream().write(99);
+            socket.getOutputStream().flush();
+            assertEquals(Protocol.UNKNOWN_REQUEST, in.readByte());
+            skipReply(in);
+            assertEquals(-1, in.read());
+        }
+    }
+
+    // The rest of a reply after its status byte
+    private static void skipReply(DataInputStream in) throws IOException {
+        in.skipBytes(2);
+        in.skipBytes(in.readUnsignedByte() + 8 + 4 + 4 + 8 + 4);
+    }
+
+    private static void assertRefused(byte status, GameClient.Reply before, GameClient.Reply reply) {
+        assertEquals(reply.toString(), status, reply.getStatus());
+        assertFalse(reply.isOk());
+        assertEquals(before.getState(), reply.getState());
+        assertEquals(before.getStage(), reply.getStage());
+        assertEquals(before.getCards(), reply.getCards());
+        assertEquals(before.getBalance(), reply.getBalance());
+        assertEquals(before.getBet(), reply.getBet());
+        assertEquals(before.getWinnings(), reply.getWinnings());
+    }
+
+    private static void assertSame(GameSnapshot expected, GameClient.Reply reply) {
+        String context = expected + " vs " + reply;
+        assertTrue(context, reply.isOk());
+        assertEquals(context, expected.getState(), reply.getState());
+        assertEquals(context, expected.getStage(), reply.getStage());
+        assertEquals(context, expected.getDealtCards(), reply.getCards());
+        assertEquals(context, expected.getBalance(), reply.getBalance());
+        assertEquals(context, expected.getBet(), reply.getBet());
+        assertEquals(context, expected.getWinnings(), reply.getWinnings());
+        assertEquals(context, expected.getHighScore(), reply.getHighScore());
+        assertEquals(context, expected.getDefaultBet(), reply.getDefaultBet());
+    }
+}